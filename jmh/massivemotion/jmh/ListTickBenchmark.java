@@ -0,0 +1,109 @@
+package massivemotion.jmh;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH version of ListBenchmark: ticks/sec of the simulation's list access
+ * pattern per List implementation at 1k, 10k and 100k bodies
+ * Each invocation is one ListBenchmark.tick(): n/100 appends, a sweep over
+ * every body (by index or with a cursor), then n/100 removes by index from
+ * the end backwards, so the population stays at n for the whole trial.
+ *
+ * JMH refuses benchmarks in the default package, and a named package cannot
+ * refer to the game's default-package classes, so populated() and tick()
+ * are bound once through method handles. They are static final, so the JIT
+ * treats the calls as direct ones. The tick's return value goes to JMH's
+ * blackhole.
+ *
+ * Build and run from the project root:
+ *   mvn -P jmh package
+ *   java -jar target/benchmarks.jar ListTickBenchmark -prof gc
+ * -prof gc adds JMH's GC profiler, whose gc.alloc.rate.norm is the bytes
+ * allocated per tick; node-based lists should show their node churn there.
+ * main() runs the same thing with the profiler always on:
+ *   java -cp target/benchmarks.jar massivemotion.jmh.ListTickBenchmark
+ * Indexed sweeps on single/double/dummyhead at 100k bodies take seconds per
+ * tick; add -p n=1000,10000 for a shorter run.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(3)
+@State(Scope.Thread)
+public class ListTickBenchmark {
+
+    private static final MethodHandle POPULATED;
+    private static final MethodHandle TICK;
+
+    static {
+        try {
+            Class<?> bench = Class.forName("ListBenchmark");
+            Class<?> list = Class.forName("List");
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            POPULATED = lookup.findStatic(bench, "populated", MethodType.methodType(list, String.class, int.class))
+                    .asType(MethodType.methodType(Object.class, String.class, int.class));
+            TICK = lookup.findStatic(bench, "tick", MethodType.methodType(double.class, list, int.class, boolean.class))
+                    .asType(MethodType.methodType(double.class, Object.class, int.class, boolean.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    @Param({ "arraylist", "single", "double", "dummyhead", "unrolled", "ring" })
+    public String type;
+
+    @Param({ "1000", "10000", "100000" })
+    public int n;
+
+    @Param({ "indexed", "cursor" })
+    public String sweep;
+
+    private Object list;
+    private int churn;
+    private boolean indexed;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Throwable {
+        list = (Object) POPULATED.invokeExact(type, n);
+        churn = Math.max(1, n / 100);
+        indexed = sweep.equals("indexed");
+    }
+
+    @Benchmark
+    public double tick() throws Throwable {
+        return (double) TICK.invokeExact(list, churn, indexed);
+    }
+
+    /**
+     * Runs this benchmark with the GC profiler attached.
+     *
+     * @param args unused
+     * @throws Exception if JMH fails to run the benchmark
+     */
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .include(ListTickBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
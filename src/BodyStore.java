@@ -0,0 +1,245 @@
+import java.util.Arrays;
+
+/**
+ * Structure-of-arrays store for celestial bodies (list=soa)
+ * Every body field lives in its own primitive array, so moving and culling
+ * are straight sweeps over doubles with no per-body objects to allocate or
+ * chase. Removal swaps the last body into the hole, so order is not kept.
+ */
+public class BodyStore {
+
+    // Color indexes; MassiveMotion.PALETTE maps them to draw colors
+    public static final byte STAR = 0;
+    public static final byte TOP_BOTTOM = 1;
+    public static final byte LEFT_RIGHT = 2;
+
+    // Parallel arrays, valid in [0, size)
+    long[] id;          // unique body id
+    double[] x, y;      // center position
+    double[] vx, vy;    // velocity per tick
+    double[] r;         // radius
+    double[] m;         // mass
+    byte[] color;       // color index (STAR, TOP_BOTTOM or LEFT_RIGHT)
+    int size;
+
+    // Empty store with a small starting capacity
+    public BodyStore() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty store able to hold the given number of bodies before
+     * it has to grow.
+     *
+     * @param capacity initial capacity (at least 1)
+     */
+    public BodyStore(int capacity) {
+        int cap = Math.max(1, capacity);
+        id = new long[cap];
+        x = new double[cap];
+        y = new double[cap];
+        vx = new double[cap];
+        vy = new double[cap];
+        r = new double[cap];
+        m = new double[cap];
+        color = new byte[cap];
+        size = 0;
+    }
+
+    private void grow() {
+        int newCap = x.length * 2;
+        id = Arrays.copyOf(id, newCap);
+        x = Arrays.copyOf(x, newCap);
+        y = Arrays.copyOf(y, newCap);
+        vx = Arrays.copyOf(vx, newCap);
+        vy = Arrays.copyOf(vy, newCap);
+        r = Arrays.copyOf(r, newCap);
+        m = Arrays.copyOf(m, newCap);
+        color = Arrays.copyOf(color, newCap);
+    }
+
+    /**
+     * Appends a body to the store.
+     *
+     * @param bid unique body id
+     * @param bx center x
+     * @param by center y
+     * @param bvx x velocity per tick
+     * @param bvy y velocity per tick
+     * @param br radius
+     * @param bm mass
+     * @param c palette index (STAR, TOP_BOTTOM or LEFT_RIGHT)
+     * @return index of the new body
+     */
+    public int add(long bid, double bx, double by, double bvx, double bvy, double br, double bm, byte c) {
+        if (size == x.length) {
+            grow();
+        }
+        int i = size++;
+        id[i] = bid;
+        x[i] = bx;
+        y[i] = by;
+        vx[i] = bvx;
+        vy[i] = bvy;
+        r[i] = br;
+        m[i] = bm;
+        color[i] = c;
+        return i;
+    }
+
+    /**
+     * Advances every body by its velocity. Each axis is its own loop so the
+     * JIT can vectorize the sweeps.
+     */
+    public void move() {
+        final int n = size;
+        final double[] px = x, py = y, pvx = vx, pvy = vy;
+        for (int i = 0; i < n; i++) {
+            px[i] += pvx[i];
+        }
+        for (int i = 0; i < n; i++) {
+            py[i] += pvy[i];
+        }
+    }
+
+    /**
+     * Adds a per-body acceleration to every velocity.
+     *
+     * @param ax x accelerations, indexed like the store
+     * @param ay y accelerations, indexed like the store
+     */
+    public void accelerate(double[] ax, double[] ay) {
+        final int n = size;
+        final double[] pvx = vx, pvy = vy;
+        for (int i = 0; i < n; i++) {
+            pvx[i] += ax[i];
+        }
+        for (int i = 0; i < n; i++) {
+            pvy[i] += ay[i];
+        }
+    }
+
+    /**
+     * Removes the body at index i by moving the last body into its slot.
+     *
+     * @param i index of the body to remove
+     * @throws IndexOutOfBoundsException if i is out of range
+     */
+    public void swapRemove(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("index=" + i + ", size=" + size);
+        }
+        int last = --size;
+        id[i] = id[last];
+        x[i] = x[last];
+        y[i] = y[last];
+        vx[i] = vx[last];
+        vy[i] = vy[last];
+        r[i] = r[last];
+        m[i] = m[last];
+        color[i] = color[last];
+    }
+
+    /**
+     * Removes every body whose circle lies entirely outside [0,W] x [0,H].
+     *
+     * @param W world width
+     * @param H world height
+     * @return number of bodies removed
+     */
+    public int removeOffscreen(int W, int H) {
+        int before = size;
+        int i = 0;
+        while (i < size) {
+            double br = r[i];
+            if (x[i] + br < 0 || x[i] - br > W || y[i] + br < 0 || y[i] - br > H) {
+                swapRemove(i);      // re-check slot i, it now holds the old last body
+            } else {
+                i++;
+            }
+        }
+        return before - size;
+    }
+
+    /**
+     * Removes every off-screen body and, in the same sweep, absorbs every
+     * body touching the star at index star: the star gains its mass and
+     * momentum and the body is removed. The star keeps its slot unless it
+     * goes off-screen itself, after which nothing more is captured.
+     *
+     * @param W world width
+     * @param H world height
+     * @param star index of the star, or -1 to capture nothing
+     * @return number of bodies absorbed by the star
+     */
+    public int removeOffscreen(int W, int H, int star) {
+        if (star >= 0 && offscreen(star, W, H)) {
+            star = -1;          // leaving this tick, so it captures nothing
+        }
+        int captured = 0;
+        int i = 0;
+        while (i < size) {
+            if (!offscreen(i, W, H)) {
+                if (star < 0 || i == star || !touches(star, i)) {
+                    i++;
+                    continue;
+                }
+                double total = m[star] + m[i];
+                if (total > 0) {
+                    vx[star] = (m[star] * vx[star] + m[i] * vx[i]) / total;
+                    vy[star] = (m[star] * vy[star] + m[i] * vy[i]) / total;
+                }
+                m[star] = total;
+                captured++;
+            }
+            if (star == size - 1) {
+                star = i;           // the star is the body about to fill the hole
+            }
+            swapRemove(i);          // re-check slot i, it now holds the old last body
+        }
+        return captured;
+    }
+
+    private boolean offscreen(int i, int W, int H) {
+        double br = r[i];
+        return x[i] + br < 0 || x[i] - br > W || y[i] + br < 0 || y[i] - br > H;
+    }
+
+    private boolean touches(int a, int b) {
+        double dx = x[b] - x[a];
+        double dy = y[b] - y[a];
+        double rr = r[a] + r[b];
+        return dx * dx + dy * dy < rr * rr;
+    }
+
+    /**
+     * Removes every body flagged in dead. Walks from the end so each hole is
+     * filled by a body that has already been checked.
+     *
+     * @param dead removal flags, indexed like the store
+     * @return number of bodies removed
+     */
+    public int removeDead(boolean[] dead) {
+        int before = size;
+        for (int i = size - 1; i >= 0; i--) {
+            if (dead[i]) {
+                swapRemove(i);
+            }
+        }
+        return before - size;
+    }
+
+    /** Removes every body, keeping the arrays for reuse. */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Returns the number of bodies currently stored.
+     *
+     * @return the number of bodies
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,170 @@
+import java.awt.Component;
+import java.awt.event.KeyEvent;
+import java.awt.event.KeyListener;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+
+/**
+ * Pan/zoom view of the world shown by a panel
+ * Maps world coordinates to panel pixels as (x - left) * scale, so a
+ * Renderer can work out what is on screen and how big it is there. With
+ * scale 1 and the corner at (0, 0) the mapping is the identity, which is
+ * how the window has always drawn a world the size of the panel.
+ *
+ * Added to a panel as its mouse, wheel and key listener: dragging pans,
+ * the wheel zooms about the cursor, + and - zoom about the center, F fits
+ * the whole world in the panel and 1 goes back to one pixel per unit.
+ * Only used on the Swing event thread.
+ */
+public class Camera extends MouseAdapter implements KeyListener {
+
+    private static final double MIN_SCALE = 1.0 / 1024;
+    private static final double MAX_SCALE = 64;
+    private static final double WHEEL_STEP = 1.25;   // zoom factor per wheel notch
+
+    private double left, top;   // world point at the panel's top-left corner
+    private double scale = 1;   // panel pixels per world unit
+    private int worldW, worldH;
+
+    private int dragX, dragY;   // last mouse position while dragging
+
+    /**
+     * Creates a camera showing the world at one pixel per unit, with the
+     * world's top-left corner in the panel's top-left corner.
+     *
+     * @param worldW world width
+     * @param worldH world height
+     */
+    public Camera(int worldW, int worldH) {
+        setWorld(worldW, worldH);
+    }
+
+    /** @return world x at the panel's left edge. */
+    public double left() {
+        return left;
+    }
+
+    /** @return world y at the panel's top edge. */
+    public double top() {
+        return top;
+    }
+
+    /** @return panel pixels per world unit. */
+    public double scale() {
+        return scale;
+    }
+
+    /**
+     * Sets the size of the world that fit() frames; the view is unchanged.
+     *
+     * @param w world width
+     * @param h world height
+     */
+    public void setWorld(int w, int h) {
+        worldW = Math.max(1, w);
+        worldH = Math.max(1, h);
+    }
+
+    /**
+     * Frames the whole world in a w x h panel. A world that already fits is
+     * shown at one pixel per unit from its top-left corner; a larger one is
+     * scaled down to fit and centered.
+     *
+     * @param w panel width
+     * @param h panel height
+     */
+    public void fit(int w, int h) {
+        if (w <= 0 || h <= 0) {
+            return;
+        }
+        if (worldW <= w && worldH <= h) {
+            scale = 1;
+            left = 0;
+            top = 0;
+            return;
+        }
+        scale = clamp(Math.min((double) w / worldW, (double) h / worldH));
+        left = (worldW - w / scale) / 2;
+        top = (worldH - h / scale) / 2;
+    }
+
+    /**
+     * Zooms by factor, keeping the world point under panel pixel (sx, sy)
+     * where it is.
+     *
+     * @param sx panel x to zoom about
+     * @param sy panel y to zoom about
+     * @param factor how much to multiply the scale by
+     */
+    public void zoomAt(double sx, double sy, double factor) {
+        double wx = left + sx / scale;
+        double wy = top + sy / scale;
+        scale = clamp(scale * factor);
+        left = wx - sx / scale;
+        top = wy - sy / scale;
+    }
+
+    /**
+     * Moves the view by a distance in panel pixels; the world follows the
+     * mouse, so dragging right shows more of the world to the left.
+     *
+     * @param dx pixels to move right
+     * @param dy pixels to move down
+     */
+    public void pan(double dx, double dy) {
+        left -= dx / scale;
+        top -= dy / scale;
+    }
+
+    private static double clamp(double s) {
+        return Math.max(MIN_SCALE, Math.min(MAX_SCALE, s));
+    }
+
+    @Override
+    public void mousePressed(MouseEvent e) {
+        dragX = e.getX();
+        dragY = e.getY();
+        e.getComponent().requestFocusInWindow();
+    }
+
+    @Override
+    public void mouseDragged(MouseEvent e) {
+        pan(e.getX() - dragX, e.getY() - dragY);
+        dragX = e.getX();
+        dragY = e.getY();
+        e.getComponent().repaint();
+    }
+
+    @Override
+    public void mouseWheelMoved(MouseWheelEvent e) {
+        zoomAt(e.getX(), e.getY(), Math.pow(WHEEL_STEP, -e.getPreciseWheelRotation()));
+        e.getComponent().repaint();
+    }
+
+    @Override
+    public void keyPressed(KeyEvent e) {
+        Component c = e.getComponent();
+        int code = e.getKeyCode();
+        if (code == KeyEvent.VK_F) {
+            fit(c.getWidth(), c.getHeight());
+        } else if (code == KeyEvent.VK_1) {
+            zoomAt(c.getWidth() / 2.0, c.getHeight() / 2.0, 1 / scale);
+        } else if (code == KeyEvent.VK_PLUS || code == KeyEvent.VK_EQUALS || code == KeyEvent.VK_ADD) {
+            zoomAt(c.getWidth() / 2.0, c.getHeight() / 2.0, 2);
+        } else if (code == KeyEvent.VK_MINUS || code == KeyEvent.VK_SUBTRACT) {
+            zoomAt(c.getWidth() / 2.0, c.getHeight() / 2.0, 0.5);
+        } else {
+            return;
+        }
+        c.repaint();
+    }
+
+    @Override
+    public void keyReleased(KeyEvent e) {
+    }
+
+    @Override
+    public void keyTyped(KeyEvent e) {
+    }
+}
@@ -0,0 +1,268 @@
+import java.util.Arrays;
+
+/**
+ * Uniform spatial hash grid for body-body collisions
+ * Cells are twice body_size wide, so two ordinary bodies can only touch if
+ * their centers fall in the same or adjacent cells. Each tick the bodies
+ * are hashed into a table of chained buckets by cell coordinates (broad
+ * phase), and only bodies in the 3x3 cells around each body get the exact
+ * circle overlap test (narrow phase). Bodies wider than a cell, like the
+ * star, are kept out of the grid and tested against everyone directly.
+ *
+ * Overlapping bodies merge: the heavier one survives with the summed mass,
+ * the mass-weighted position and velocity, and the larger radius, so total
+ * mass and momentum are conserved. The lighter one is flagged dead for the
+ * caller to remove. A survivor has moved, and may have grown wider than a
+ * cell, so it is re-hashed (or moved to the wide bodies) and tested again
+ * against everything it could now reach before the pass goes on. Chains of
+ * merges therefore all resolve within one tick.
+ *
+ * The buckets live in int arrays that are reused from tick to tick, so a
+ * rebuild allocates nothing once they have grown to fit.
+ */
+public class CollisionGrid {
+
+    private static final int NONE = -1;
+
+    private final double cell;   // cell width
+    private final double inv;    // 1 / cell
+
+    private int[] heads = new int[0];   // first body in each bucket, NONE if empty
+    private int[] next = new int[0];    // next body in the same bucket
+    private int[] cellX = new int[0], cellY = new int[0];
+    private int[] big = new int[0];     // bodies too wide for the grid
+    private boolean[] isBig = new boolean[0];
+    private int bigCount;
+    private int mask;
+
+    /**
+     * Creates a grid for bodies of radius up to bodySize.
+     *
+     * @param bodySize radius of an ordinary body (at least 1)
+     */
+    public CollisionGrid(int bodySize) {
+        this.cell = 2.0 * Math.max(1, bodySize);
+        this.inv = 1.0 / cell;
+    }
+
+    /** @return the cell width this grid was built for. */
+    public double cellSize() {
+        return cell;
+    }
+
+    /**
+     * Merges every pair of overlapping bodies among [0, n). Survivors are
+     * updated in place; absorbed bodies get dead[i] = true. Bodies already
+     * dead on entry, and the excluded body, are ignored.
+     *
+     * @param x body x positions
+     * @param y body y positions
+     * @param vx body x velocities
+     * @param vy body y velocities
+     * @param m body masses
+     * @param r body radii
+     * @param dead out: set for each absorbed body
+     * @param n number of bodies
+     * @param exclude index of a body that takes no part in merging, or -1
+     * @return number of bodies absorbed
+     */
+    public int merge(double[] x, double[] y, double[] vx, double[] vy, double[] m, double[] r,
+                     boolean[] dead, int n, int exclude) {
+        build(x, y, r, dead, n, exclude);
+        int merged = 0;
+
+        // wide bodies first: check them against everybody (the list can grow
+        // as grid bodies absorb wide ones)
+        for (int k = 0; k < bigCount; k++) {
+            if (!dead[big[k]]) {
+                merged += settle(x, y, vx, vy, m, r, dead, n, exclude, big[k], false);
+            }
+        }
+
+        // grid bodies against the 3x3 cells around them, each pair once
+        // (i < j) until a merge moves one of them
+        for (int i = 0; i < n; i++) {
+            if (!dead[i] && cellX[i] != Integer.MIN_VALUE) {
+                merged += settle(x, y, vx, vy, m, r, dead, n, exclude, i, true);
+            }
+        }
+        return merged;
+    }
+
+    // Merges body s with whatever it touches, following the survivor of each
+    // merge, until the survivor touches nothing. While onlyLater is set (s
+    // has not moved yet) grid bodies only look at higher indices, since the
+    // lower ones already looked at s.
+    private int settle(double[] x, double[] y, double[] vx, double[] vy, double[] m, double[] r,
+                       boolean[] dead, int n, int exclude, int s, boolean onlyLater) {
+        int merged = 0;
+        int from = onlyLater ? s + 1 : 0;
+        while (true) {
+            int j;
+            if (isBig[s]) {
+                j = contactAny(x, y, r, dead, n, exclude, s);
+            } else {
+                j = contactNear(x, y, r, dead, s, from);
+                if (j == NONE && from == 0) {
+                    j = contactBig(x, y, r, dead, s);   // wide bodies only looked before s moved
+                }
+            }
+            if (j == NONE) {
+                return merged;
+            }
+            s = absorb(x, y, vx, vy, m, r, dead, s, j);
+            merged++;
+            place(x, y, r, s);
+            from = 0;
+        }
+    }
+
+    // First live body touching s, checking every body
+    private int contactAny(double[] x, double[] y, double[] r, boolean[] dead, int n, int exclude, int s) {
+        for (int j = 0; j < n; j++) {
+            if (j != s && j != exclude && !dead[j] && touching(x, y, r, s, j)) {
+                return j;
+            }
+        }
+        return NONE;
+    }
+
+    // First live grid body with index from or more touching grid body s, in
+    // the 3x3 cells around it
+    private int contactNear(double[] x, double[] y, double[] r, boolean[] dead, int s, int from) {
+        int ci = cellX[s], cj = cellY[s];
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                int cx = ci + dx, cy = cj + dy;
+                for (int j = heads[hash(cx, cy)]; j != NONE; j = next[j]) {
+                    // several cells can share a bucket, so check the cell too
+                    if (j == s || j < from || dead[j] || cellX[j] != cx || cellY[j] != cy) {
+                        continue;
+                    }
+                    if (touching(x, y, r, s, j)) {
+                        return j;
+                    }
+                }
+            }
+        }
+        return NONE;
+    }
+
+    // First live wide body touching s
+    private int contactBig(double[] x, double[] y, double[] r, boolean[] dead, int s) {
+        for (int k = 0; k < bigCount; k++) {
+            int b = big[k];
+            if (b != s && !dead[b] && touching(x, y, r, s, b)) {
+                return b;
+            }
+        }
+        return NONE;
+    }
+
+    // Puts a merge survivor back where it now belongs: into the cell of its
+    // new position, or among the wide bodies if it outgrew the grid
+    private void place(double[] x, double[] y, double[] r, int s) {
+        if (isBig[s]) {
+            return;
+        }
+        unlink(s);
+        if (2 * r[s] > cell) {
+            isBig[s] = true;
+            big[bigCount++] = s;
+            cellX[s] = Integer.MIN_VALUE;
+            return;
+        }
+        link(x, y, s);
+    }
+
+    // Hashes body s into the bucket of the cell its center is in
+    private void link(double[] x, double[] y, int s) {
+        int cx = (int) Math.floor(x[s] * inv);
+        int cy = (int) Math.floor(y[s] * inv);
+        cellX[s] = cx;
+        cellY[s] = cy;
+        int h = hash(cx, cy);
+        next[s] = heads[h];
+        heads[h] = s;
+    }
+
+    // Takes body s out of its bucket's chain
+    private void unlink(int s) {
+        int h = hash(cellX[s], cellY[s]);
+        if (heads[h] == s) {
+            heads[h] = next[s];
+            return;
+        }
+        for (int j = heads[h]; j != NONE; j = next[j]) {
+            if (next[j] == s) {
+                next[j] = next[s];
+                return;
+            }
+        }
+    }
+
+    // Hashes every live grid-sized body into its bucket; wider ones go to big
+    private void build(double[] x, double[] y, double[] r, boolean[] dead, int n, int exclude) {
+        if (next.length < n) {
+            int cap = Math.max(n, next.length * 2);
+            next = new int[cap];
+            cellX = new int[cap];
+            cellY = new int[cap];
+            big = new int[cap];
+            isBig = new boolean[cap];
+        }
+        int buckets = Integer.highestOneBit(Math.max(16, n * 2 - 1)) << 1;
+        // grow with the population, and give the table back after a burst
+        if (heads.length < buckets || heads.length > 4 * buckets) {
+            heads = new int[buckets];
+            mask = buckets - 1;
+        }
+        Arrays.fill(heads, NONE);
+
+        bigCount = 0;
+        for (int i = 0; i < n; i++) {
+            isBig[i] = false;
+            if (dead[i] || i == exclude) {
+                cellX[i] = Integer.MIN_VALUE;
+                continue;
+            }
+            if (2 * r[i] > cell) {
+                isBig[i] = true;
+                big[bigCount++] = i;
+                cellX[i] = Integer.MIN_VALUE;
+                continue;
+            }
+            link(x, y, i);
+        }
+    }
+
+    private int hash(int cx, int cy) {
+        return ((cx * 73856093) ^ (cy * 19349663)) & mask;
+    }
+
+    private static boolean touching(double[] x, double[] y, double[] r, int i, int j) {
+        double dx = x[j] - x[i];
+        double dy = y[j] - y[i];
+        double rr = r[i] + r[j];
+        return dx * dx + dy * dy < rr * rr;
+    }
+
+    // Merges i and j into the heavier of the two (i on a tie) and returns it
+    private static int absorb(double[] x, double[] y, double[] vx, double[] vy, double[] m, double[] r,
+                               boolean[] dead, int i, int j) {
+        int s = m[j] > m[i] ? j : i;
+        int o = (s == i) ? j : i;
+        double total = m[s] + m[o];
+        if (total > 0) {
+            double ws = m[s] / total, wo = m[o] / total;
+            x[s] = ws * x[s] + wo * x[o];
+            y[s] = ws * y[s] + wo * y[o];
+            vx[s] = ws * vx[s] + wo * vx[o];
+            vy[s] = ws * vy[s] + wo * vy[o];
+        }
+        m[s] = total;
+        r[s] = Math.max(r[s], r[o]);
+        dead[o] = true;
+        return s;
+    }
+}
@@ -1,6 +1,14 @@
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.util.Properties;
+import java.util.function.Consumer;
 
 /*
 Config.java : utility class meant to fullfill Requirement 1 in a cleaner way.
@@ -11,27 +19,291 @@ Config.java : utility class meant to fullfill Requirement 1 in a cleaner way.
 
 public class Config {
 
-    // Instance variable : holds all key=value pairs
+    // Wait this long after a change so editors can finish writing the file
+    private static final long RELOAD_DEBOUNCE_MS = 150;
+
+    // Instance variable : holds all key=value pairs (only read while loading)
     private final Properties props = new Properties();
+    private final boolean loaded;   // false if the file could not be read
+
+    // Parsed values, filled once by the constructor. The getters below just
+    // return these, so the per-tick code never parses strings or does lookups.
+    private final int windowW, windowH;
+    private final int worldW, worldH;
+    private final boolean worldFixed;
+    private final String listType;
+    private final int nodePool, bodyPool, unrolledBlock, initialCapacity;
+    private final int starX, starY, starVx, starVy;
+    private final double starMass, bodyMass;
+    private final String gravity, renderer, metricsCsv;
+    private final String snapshotLoad, snapshotSave;
+    private final String recordFile;
+    private final int recordEvery;
+    private final String replayFile;
+    private final double replaySpeed;
+    private final String integrator;
+    private final boolean adaptiveDt;
+    private final double dtEta;
+    private final int maxSubsteps, energyEvery;
+    private final long seed;
+    private final boolean seeded;
+    private final double gravityConstant, theta, softening;
+    private final int simThreads;
+    private final boolean simThread;
+    private final int simHz, paintHz;
+    private final boolean headless;
+    private final int headlessTicks, bodySize;
+    private final double genX, genY;
+    private final int timerDelayMs, starSize, bodyVelRange;
+    private final boolean configReload;
+    private final boolean collisions, starCapture;
+    private final int metricsInterval;
 
     /**
      * Constructor
-     * Loads configuration values from the given file.
+     * Loads configuration values from the given file and parses every
+     * setting once. A Config never changes after construction.
      *
      * @param filename path to the properties file (e.g. MassiveMotion.txt)
      * @throws RuntimeException if the file cannot be read
      */
     public Config (String filename) {
         // filInpStrm : short-hand for file input stream
+        boolean ok = false;
         try (FileInputStream filInpStrm = new FileInputStream(filename)) {    
             props.load(filInpStrm); // Loading all key=value pairs
+            ok = true;
         } catch (IOException e) { 
             System.err.println("Error reading properties file: " + filename);
             e.printStackTrace();
         }   
+        loaded = ok;
+
+        // Parse and clamp everything up front (defaults for missing/invalid keys)
+        windowW = getInt("window_size_x", 640);
+        windowH = getInt("window_size_y", 480);
+        worldFixed = !getString("world_size_x", "").isEmpty() || !getString("world_size_y", "").isEmpty();
+        worldW = Math.max(1, getInt("world_size_x", windowW));
+        worldH = Math.max(1, getInt("world_size_y", windowH));
+        bodySize = Math.max(1, getInt("body_size", 4));
+        listType = getString("list", "arraylist").toLowerCase();
+        nodePool = Math.max(0, getInt("node_pool", 0));
+        bodyPool = Math.max(0, getInt("body_pool", 1024));
+        unrolledBlock = Math.max(4, getInt("unrolled_block", 64));
+        starX = getInt("star_position_x", worldW/2);
+        starY = getInt("star_position_y", worldH/2);
+        starVx = getInt("star_velocity_x", 0);
+        starVy = getInt("star_velocity_y", 0);
+        starMass = getDouble("star_mass", 2E29);
+        bodyMass = getDouble("body_mass", 1E21);
+        gravity = getString("gravity", "none").toLowerCase();
+        gravityConstant = getDouble("gravity_constant", 2.5E-27);
+        theta = Math.max(0.0, getDouble("theta", 0.5));
+        softening = Math.max(0.0, getDouble("gravity_softening", bodySize));
+        simThreads = Math.max(1, getInt("sim_threads", 1));
+        simThread = getBoolean("sim_thread", false);
+        simHz = Math.max(1, getInt("sim_hz", 1000));
+        paintHz = Math.max(1, getInt("paint_hz", 60));
+        headless = getBoolean("headless", false);
+        headlessTicks = Math.max(1, getInt("headless_ticks", 10000));
+        genX = clampRange01( getDouble("gen_x", 0.02) );
+        genY = clampRange01( getDouble("gen_y", 0.02) );
+        timerDelayMs = Math.max(1, getInt("timer_delay", 16) );
+        starSize = Math.max(1, getInt("star_size", 10) );
+        bodyVelRange = Math.max(1, getInt("body_velocity", 5) );
+        configReload = getBoolean("config_reload", false);
+        initialCapacity = Math.max(1, getInt("initial_capacity", estimateCapacity()));
+        collisions = getBoolean("collisions", false);
+        starCapture = getBoolean("star_capture", false);
+        renderer = getString("renderer", "graphics").toLowerCase();
+        metricsCsv = getString("metrics_csv", "");
+        metricsInterval = Math.max(1, getInt("metrics_interval", 5));
+        seeded = !getString("seed", "").isEmpty();
+        seed = getLong("seed", System.nanoTime());
+        snapshotLoad = getString("snapshot_load", "");
+        snapshotSave = getString("snapshot_save", "");
+        recordFile = getString("record_file", "");
+        recordEvery = Math.max(1, getInt("record_every", 10));
+        replayFile = getString("replay_file", "");
+        replaySpeed = Math.max(1.0 / 64, getDouble("replay_speed", 1.0));
+        integrator = getString("integrator", "euler").toLowerCase();
+        adaptiveDt = getBoolean("adaptive_dt", false);
+        dtEta = Math.max(1e-6, getDouble("dt_eta", 0.25));
+        maxSubsteps = Math.max(1, getInt("max_substeps", 64));
+        energyEvery = Math.max(0, getInt("energy_every", 0));
+    }
+
+    // Rough steady-state body count: spawns per tick times the ticks a body
+    // takes to cross the world at the average speed, doubled for headroom
+    private int estimateCapacity() {
+        double avgSpeed = (bodyVelRange + 1) / 2.0;
+        double live = genX * worldH / avgSpeed + genY * worldW / avgSpeed;
+        return (int) Math.min(1 << 20, 2 * live + 16);
+    }
+
+    /**
+     * Watches the properties file and hands a freshly parsed Config to the
+     * listener every time it changes. Runs on a daemon thread using a
+     * java.nio WatchService on the file's directory. Files that fail to load
+     * are skipped, so a bad edit keeps the previous settings.
+     *
+     * @param filename path to the properties file to watch
+     * @param listener called on the watcher thread with each new Config
+     * @return the started watcher thread
+     * @throws IOException if the directory cannot be watched
+     */
+    public static Thread watch(String filename, Consumer<Config> listener) throws IOException {
+        Path file = Paths.get(filename).toAbsolutePath();
+        Path dir = file.getParent();
+        WatchService ws = FileSystems.getDefault().newWatchService();
+        dir.register(ws, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_CREATE);
+
+        Thread t = new Thread(() -> {
+            try {
+                while (true) {
+                    WatchKey key = ws.take();
+                    boolean changed = false;
+                    for (WatchEvent<?> ev : key.pollEvents()) {
+                        if (file.getFileName().equals(ev.context())) {
+                            changed = true;
+                        }
+                    }
+                    key.reset();
+                    if (!changed) {
+                        continue;
+                    }
+
+                    // let the write finish, then drop the burst of events it caused
+                    Thread.sleep(RELOAD_DEBOUNCE_MS);
+                    WatchKey more;
+                    while ((more = ws.poll()) != null) {
+                        more.pollEvents();
+                        more.reset();
+                    }
+
+                    Config next = new Config(filename);
+                    if (next.loaded()) {
+                        listener.accept(next);
+                    }
+                }
+            } catch (InterruptedException e) {
+                // asked to stop
+            } finally {
+                try {
+                    ws.close();
+                } catch (IOException e) {
+                    // nothing left to clean up
+                }
+            }
+        }, "config-watch");
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+
+    /** @return true if the properties file was read successfully. */
+    public boolean loaded() {
+        return loaded;
+    }
+
+    /** @return true to merge bodies that touch (star included). */
+    public boolean collisions() { 
+        return collisions; 
+    }
+
+    /** @return true to absorb bodies that touch the star into it. */
+    public boolean starCapture() { 
+        return starCapture; 
+    }
+
+    /** @return how the window draws bodies ("graphics" or "raster"). */
+    public String renderer() { 
+        return renderer; 
+    }
+
+    /** @return CSV file to append metrics to, or "" for none. */
+    public String metricsCsv() { 
+        return metricsCsv; 
+    }
+
+    /** @return seconds between metrics CSV lines. */
+    public int metricsInterval() { 
+        return metricsInterval; 
+    }
+
+    /** @return RNG seed; set from the clock when the seed property is missing. */
+    public long seed() { 
+        return seed; 
+    }
+
+    /** @return true if the seed came from the properties file. */
+    public boolean seeded() { 
+        return seeded; 
+    }
+
+    /** @return snapshot file to start from, or "" to start fresh. */
+    public String snapshotLoad() { 
+        return snapshotLoad; 
+    }
+
+    /** @return snapshot file a headless run saves its final state to, or "". */
+    public String snapshotSave() { 
+        return snapshotSave; 
+    }
+
+    /** @return trajectory log to record body states to, or "" for none. */
+    public String recordFile() { 
+        return recordFile; 
+    }
+
+    /** @return ticks between trajectory records. */
+    public int recordEvery() { 
+        return recordEvery; 
+    }
+
+    /** @return trajectory log to play back instead of simulating, or "". */
+    public String replayFile() { 
+        return replayFile; 
+    }
+
+    /** @return playback speed, 1 being the live tick rate (1000 / timer_delay). */
+    public double replaySpeed() { 
+        return replaySpeed; 
+    }
+
+    /** @return integration scheme: "euler", "leapfrog" or "verlet". */
+    public String integrator() { 
+        return integrator; 
+    }
+
+    /** @return true to split ticks into substeps when accelerations get large. */
+    public boolean adaptiveDt() { 
+        return adaptiveDt; 
+    }
+
+    /** @return accuracy factor for adaptive_dt; smaller means more substeps. */
+    public double dtEta() { 
+        return dtEta; 
+    }
+
+    /** @return most substeps adaptive_dt may split one tick into. */
+    public int maxSubsteps() { 
+        return maxSubsteps; 
+    }
+
+    /** @return ticks between energy drift samples, 0 for none. */
+    public int energyEvery() { 
+        return energyEvery; 
+    }
+
+    /** @return true to reload the properties file whenever it changes. */
+    public boolean configReload() { 
+        return configReload; 
     }
 
     // Getter Methods
+    // getString / getInt / getDouble / getBoolean parse on every call and
+    // are meant for load time; the typed getters further down are cached.
 
     /**
      * Returns the string value associated with the given key, or the default
@@ -56,6 +328,25 @@ public class Config {
         }
     }
 
+    /**
+     * Returns the long value associated with the given key, or the default
+     * value if the key is missing or not a valid long.
+     *
+     * @param key configuration key
+     * @param defaultValue value to use if key is not present or invalid
+     * @return parsed long value
+     */
+    public long getLong(String key, long defaultValue) {
+        String value = getString(key, String.valueOf(defaultValue));
+
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            System.err.println("Warning: Invalid long for key '" + key + "': " + value);
+            return defaultValue;
+        }
+    }
+
     /**
      * Returns the integer value associated with the given key, or the default
      * value if the key is missing or not a valid integer.
@@ -94,44 +385,155 @@ public class Config {
         }
     }
 
+    /**
+     * Returns the boolean value associated with the given key, or the
+     * default if missing. Accepts "true"/"false" in any case.
+     *
+     * @param key configuration key
+     * @param defaultValue value to use if key is not present
+     * @return parsed boolean value
+     */
+    public boolean getBoolean(String key, boolean defaultValue) {
+        String value = getString(key, String.valueOf(defaultValue));
+        return Boolean.parseBoolean(value);
+    }
+
     /** @return window width in pixels. */
     public int windowW() { 
-        return getInt("window_size_x", 640); 
+        return windowW; 
     }
 
     /** @return window height in pixels. */
     public int windowH() { 
-        return getInt("window_size_y", 480); 
+        return windowH; 
+    }
+
+    /** @return world width; window_size_x unless world_size_x is set. */
+    public int worldW() { 
+        return worldW; 
+    }
+
+    /** @return world height; window_size_y unless world_size_y is set. */
+    public int worldH() { 
+        return worldH; 
+    }
+
+    /** @return true if world_size_x/y fix the world, false if it follows the window size. */
+    public boolean worldFixed() { 
+        return worldFixed; 
     }
 
     /** @return which list implementation to use (e.g. "array", "linked"). */
     public String listType() { 
-        return getString("list", "arraylist").toLowerCase(); 
+        return listType; 
+    }
+
+    /** @return spare nodes each linked list keeps for reuse (0 = no pooling). */
+    public int nodePool() { 
+        return nodePool; 
+    }
+
+    /** @return culled bodies kept for respawning (0 = always allocate). */
+    public int bodyPool() { 
+        return bodyPool; 
+    }
+
+    /** @return elements per block when list=unrolled. */
+    public int unrolledBlock() { 
+        return unrolledBlock; 
+    }
+
+    /** @return starting capacity for list=arraylist and list=soa. */
+    public int initialCapacity() { 
+        return initialCapacity; 
     }
 
     /** @return initial x-position of the central star. */
     public int starX() { 
-        return getInt("star_position_x", windowW()/2); 
+        return starX; 
     }
 
     /** @return initial y-position of the central star. */
     public int starY() { 
-        return getInt("star_position_y", windowH()/2); 
+        return starY; 
     }
 
     /** @return horizontal velocity of the star. */
     public int starVx() { 
-        return getInt("star_velocity_x", 0); 
+        return starVx; 
     }
 
     /** @return vertical velocity of the star. */
     public int starVy() { 
-        return getInt("star_velocity_y", 0); 
+        return starVy; 
+    }
+
+    /** @return mass of the central star. */
+    public double starMass() { 
+        return starMass; 
+    }
+
+    /** @return mass of each spawned body. */
+    public double bodyMass() { 
+        return bodyMass; 
+    }
+
+    /** @return which force engine to use ("none", "barneshut" or "direct"). */
+    public String gravity() { 
+        return gravity; 
+    }
+
+    /**
+     * @return gravitational constant in pixel/tick units. The default is
+     *         scaled so the default star_mass visibly bends trajectories.
+     */
+    public double gravityConstant() { 
+        return gravityConstant; 
+    }
+
+    /** @return Barnes-Hut opening angle (smaller is more accurate and slower). */
+    public double theta() { 
+        return theta; 
+    }
+
+    /** @return softening length that keeps close passes from blowing up. */
+    public double softening() { 
+        return softening; 
+    }
+
+    /** @return worker threads for the force/move step (1 = run on the Swing thread). */
+    public int simThreads() { 
+        return simThreads; 
+    }
+
+    /** @return true to step the simulation on its own thread instead of the Swing timer. */
+    public boolean simThread() { 
+        return simThread; 
+    }
+
+    /** @return simulation ticks per second when sim_thread is on. */
+    public int simHz() { 
+        return simHz; 
+    }
+
+    /** @return repaints per second when sim_thread is on. */
+    public int paintHz() { 
+        return paintHz; 
+    }
+
+    /** @return true to run without a window (batch throughput runs). */
+    public boolean headless() { 
+        return headless; 
+    }
+
+    /** @return number of ticks a headless run performs. */
+    public int headlessTicks() { 
+        return headlessTicks; 
     }
 
     /** @return size (radius or diameter) of secondary bodies. */
     public int bodySize() { 
-        return getInt("body_size", 4); 
+        return bodySize; 
     }
 
     // This clamp method keeps probabilities in a legal range ( 0 - 1 )
@@ -150,30 +552,30 @@ public class Config {
      *         (often randomized along the edge).
      */
     public double genX() { 
-        return clampRange01( getDouble("gen_x", 0.02) ); 
+        return genX; 
     }
     
     /**
      * @return y-coordinate at which new bodies are generated.
      */
     public double genY() { 
-        return clampRange01( getDouble("gen_y", 0.02) ); 
+        return genY; 
     }
 
     // Math.max enforces a safe minimum for things that must be positive
     
     /** @return timer delay in milliseconds between animation frames. */
     public int timerDelayMs() { 
-        return Math.max(1, getInt("timer_delay", 16) ); 
+        return timerDelayMs; 
     }
 
     /** @return size of the central star in pixels. */
     public int starSize() { 
-        return Math.max(1, getInt("star_size", 10) ); 
+        return starSize; 
     }
 
     /** @return range of velocities used for spawned bodies. */
     public int bodyVelRange() { 
-        return Math.max(1, getInt("body_velocity", 5) ); 
+        return bodyVelRange; 
     }
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+/**
+ * Computes gravitational accelerations for a set of point masses.
+ * Used as a two-step contract: prepare() once per tick with the current
+ * positions, then accelerations() for any index range. After prepare()
+ * returns, accelerations() only reads shared state, so separate ranges may
+ * be computed from different threads.
+ */
+public interface ForceEngine {
+
+    /**
+     * Snapshots the bodies for this tick (e.g. builds a tree over them).
+     * The arrays must not change until the accelerations have been read.
+     *
+     * @param x body x positions
+     * @param y body y positions
+     * @param m body masses
+     * @param n number of bodies, using indices [0, n)
+     */
+    public void prepare(double[] x, double[] y, double[] m, int n);
+
+    /**
+     * Writes the acceleration of bodies [from, to) into ax and ay.
+     *
+     * @param from first body index (inclusive)
+     * @param to last body index (exclusive)
+     * @param ax output x accelerations, indexed like the input arrays
+     * @param ay output y accelerations, indexed like the input arrays
+     */
+    public void accelerations(int from, int to, double[] ax, double[] ay);
+}
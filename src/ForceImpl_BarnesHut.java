@@ -0,0 +1,265 @@
+import java.util.Arrays;
+
+/**
+ * Barnes-Hut implementation of ForceEngine
+ * prepare() rebuilds a quadtree over the bodies, storing each cell's total
+ * mass and center of mass. A cell that looks small from a body (cell width
+ * / distance < theta) is treated as a single point mass, so each body only
+ * visits O(log n) cells instead of all n bodies.
+ *
+ * Bodies that are still together at MAX_DEPTH share a bucket leaf. The
+ * rest of the tree sees a bucket as one point mass, but a body inside it
+ * sums the other members one by one, so it never attracts itself.
+ *
+ * The tree lives in flat arrays that are reused from tick to tick, so a
+ * rebuild allocates nothing once they have grown to fit.
+ */
+public class ForceImpl_BarnesHut implements ForceEngine {
+
+    private static final int MAX_DEPTH = 48;   // below this, bodies share a bucket leaf
+    private static final int EMPTY = -1;       // leaf with no body
+    private static final int BUCKET = -2;      // leaf at MAX_DEPTH holding several bodies
+    private static final int STACK = 3 * MAX_DEPTH + 4;   // deepest possible walk
+
+    private final double g;        // gravitational constant
+    private final double eps2;     // softening length squared
+    private final double theta2;   // opening angle squared
+
+    // Tree nodes; the four children of a node are stored next to each other
+    private int[] child;       // index of first child, -1 for leaves
+    private int[] body;        // body index in a leaf, or EMPTY / BUCKET
+    private double[] cx, cy;   // cell center
+    private double[] half;     // half the cell width
+    private double[] mass;     // total mass in the cell
+    private double[] mx, my;   // mass-weighted position sums, then center of mass
+    private int[] members;     // first body of a bucket leaf, chained through bucketNext
+    private int nodes;
+    private int[] leaf = new int[0];         // leaf node each body ended up in
+    private int[] bucketNext = new int[0];   // next body in the same bucket, or EMPTY
+
+    private double[] x, y, m;
+    private int n;
+
+    // Walk stack per thread, so ranges can be computed in parallel without
+    // allocating a stack on every call
+    private final ThreadLocal<int[]> stacks = ThreadLocal.withInitial(() -> new int[STACK]);
+
+    /**
+     * @param g gravitational constant in pixel / tick units
+     * @param softening length added in quadrature to every distance
+     * @param theta opening angle; 0 degenerates to direct summation
+     */
+    public ForceImpl_BarnesHut(double g, double softening, double theta) {
+        this.g = g;
+        this.eps2 = softening * softening;
+        this.theta2 = theta * theta;
+        allocate(64);
+    }
+
+    private void allocate(int cap) {
+        child = new int[cap];
+        body = new int[cap];
+        members = new int[cap];
+        cx = new double[cap];
+        cy = new double[cap];
+        half = new double[cap];
+        mass = new double[cap];
+        mx = new double[cap];
+        my = new double[cap];
+    }
+
+    private void grow() {
+        int cap = child.length * 2;
+        child = Arrays.copyOf(child, cap);
+        body = Arrays.copyOf(body, cap);
+        members = Arrays.copyOf(members, cap);
+        cx = Arrays.copyOf(cx, cap);
+        cy = Arrays.copyOf(cy, cap);
+        half = Arrays.copyOf(half, cap);
+        mass = Arrays.copyOf(mass, cap);
+        mx = Arrays.copyOf(mx, cap);
+        my = Arrays.copyOf(my, cap);
+    }
+
+    // Appends an empty leaf and returns its index
+    private int newNode(double ncx, double ncy, double nhalf) {
+        if (nodes == child.length) {
+            grow();
+        }
+        int k = nodes++;
+        child[k] = -1;
+        body[k] = EMPTY;
+        cx[k] = ncx;
+        cy[k] = ncy;
+        half[k] = nhalf;
+        mass[k] = 0;
+        mx[k] = 0;
+        my[k] = 0;
+        return k;
+    }
+
+    // Quadrant of (px, py) inside node k: bit 0 = east, bit 1 = south
+    private int quadrant(int k, double px, double py) {
+        int q = 0;
+        if (px >= cx[k]) {
+            q |= 1;
+        }
+        if (py >= cy[k]) {
+            q |= 2;
+        }
+        return q;
+    }
+
+    private void split(int k) {
+        double h = half[k] / 2;
+        int first = newNode(cx[k] - h, cy[k] - h, h);
+        newNode(cx[k] + h, cy[k] - h, h);
+        newNode(cx[k] - h, cy[k] + h, h);
+        newNode(cx[k] + h, cy[k] + h, h);
+        child[k] = first;
+    }
+
+    private void addMass(int k, int i) {
+        mass[k] += m[i];
+        mx[k] += m[i] * x[i];
+        my[k] += m[i] * y[i];
+    }
+
+    private void insert(int i) {
+        int k = 0;
+        int depth = 0;
+        while (true) {
+            if (child[k] < 0) {
+                if (body[k] == EMPTY) {
+                    body[k] = i;
+                    leaf[i] = k;
+                    addMass(k, i);
+                    return;
+                }
+                if (depth >= MAX_DEPTH) {
+                    if (body[k] != BUCKET) {
+                        // the leaf's single body starts the bucket's chain
+                        members[k] = body[k];
+                        bucketNext[body[k]] = EMPTY;
+                        body[k] = BUCKET;
+                    }
+                    bucketNext[i] = members[k];
+                    members[k] = i;
+                    leaf[i] = k;
+                    addMass(k, i);
+                    return;
+                }
+                // occupied leaf: push its body down one level and carry on
+                int old = body[k];
+                split(k);
+                body[k] = EMPTY;
+                int c = child[k] + quadrant(k, x[old], y[old]);
+                body[c] = old;
+                leaf[old] = c;
+                addMass(c, old);
+            }
+            addMass(k, i);
+            k = child[k] + quadrant(k, x[i], y[i]);
+            depth++;
+        }
+    }
+
+    @Override
+    public void prepare(double[] x, double[] y, double[] m, int n) {
+        this.x = x;
+        this.y = y;
+        this.m = m;
+        this.n = n;
+        nodes = 0;
+        if (n == 0) {
+            return;
+        }
+        if (leaf.length < n) {
+            leaf = new int[Math.max(n, leaf.length * 2)];
+            bucketNext = new int[leaf.length];
+        }
+
+        double minX = x[0], maxX = x[0], minY = y[0], maxY = y[0];
+        for (int i = 1; i < n; i++) {
+            minX = Math.min(minX, x[i]);
+            maxX = Math.max(maxX, x[i]);
+            minY = Math.min(minY, y[i]);
+            maxY = Math.max(maxY, y[i]);
+        }
+        double h = Math.max(maxX - minX, maxY - minY) / 2 + 1;
+        newNode((minX + maxX) / 2, (minY + maxY) / 2, h);
+
+        for (int i = 0; i < n; i++) {
+            insert(i);
+        }
+
+        // turn the weighted sums into centers of mass
+        for (int k = 0; k < nodes; k++) {
+            if (mass[k] > 0) {
+                mx[k] /= mass[k];
+                my[k] /= mass[k];
+            }
+        }
+    }
+
+    @Override
+    public void accelerations(int from, int to, double[] ax, double[] ay) {
+        int[] stack = stacks.get();
+        for (int i = from; i < to; i++) {
+            double xi = x[i], yi = y[i];
+            double sx = 0, sy = 0;
+            int top = 0;
+            if (nodes > 0) {
+                stack[top++] = 0;
+            }
+            int own = leaf[i];
+            while (top > 0) {
+                int k = stack[--top];
+                if (mass[k] == 0 || body[k] == i) {
+                    continue;
+                }
+                if (k == own) {
+                    // i's own bucket: every other member directly
+                    for (int j = members[k]; j != EMPTY; j = bucketNext[j]) {
+                        if (j == i) {
+                            continue;
+                        }
+                        double dx = x[j] - xi;
+                        double dy = y[j] - yi;
+                        double d2 = dx * dx + dy * dy + eps2;
+                        if (d2 > 0) {
+                            double inv = 1.0 / Math.sqrt(d2);
+                            double f = m[j] * inv * inv * inv;
+                            sx += f * dx;
+                            sy += f * dy;
+                        }
+                    }
+                    continue;
+                }
+                double dx = mx[k] - xi;
+                double dy = my[k] - yi;
+                double d2 = dx * dx + dy * dy;
+                double w = 2 * half[k];
+                if (child[k] >= 0 && w * w >= theta2 * d2) {
+                    // too close to approximate: open the cell
+                    int c = child[k];
+                    stack[top++] = c;
+                    stack[top++] = c + 1;
+                    stack[top++] = c + 2;
+                    stack[top++] = c + 3;
+                    continue;
+                }
+                d2 += eps2;
+                if (d2 == 0) {
+                    continue;
+                }
+                double inv = 1.0 / Math.sqrt(d2);
+                double f = mass[k] * inv * inv * inv;
+                sx += f * dx;
+                sy += f * dy;
+            }
+            ax[i] = g * sx;
+            ay[i] = g * sy;
+        }
+    }
+}
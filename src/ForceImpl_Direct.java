@@ -0,0 +1,55 @@
+/**
+ * Brute-force O(n^2) implementation of ForceEngine
+ * Sums the pull of every other body directly. Too slow for big populations,
+ * but exact, so it is the reference for checking ForceImpl_BarnesHut.
+ */
+public class ForceImpl_Direct implements ForceEngine {
+
+    private final double g;      // gravitational constant
+    private final double eps2;   // softening length squared
+
+    private double[] x, y, m;
+    private int n;
+
+    /**
+     * @param g gravitational constant in pixel / tick units
+     * @param softening length added in quadrature to every distance
+     */
+    public ForceImpl_Direct(double g, double softening) {
+        this.g = g;
+        this.eps2 = softening * softening;
+    }
+
+    @Override
+    public void prepare(double[] x, double[] y, double[] m, int n) {
+        this.x = x;
+        this.y = y;
+        this.m = m;
+        this.n = n;
+    }
+
+    @Override
+    public void accelerations(int from, int to, double[] ax, double[] ay) {
+        for (int i = from; i < to; i++) {
+            double xi = x[i], yi = y[i];
+            double sx = 0, sy = 0;
+            for (int j = 0; j < n; j++) {
+                if (j == i) {
+                    continue;
+                }
+                double dx = x[j] - xi;
+                double dy = y[j] - yi;
+                double d2 = dx * dx + dy * dy + eps2;
+                if (d2 == 0) {
+                    continue;   // coincident and unsoftened: no direction to pull in
+                }
+                double inv = 1.0 / Math.sqrt(d2);
+                double f = m[j] * inv * inv * inv;
+                sx += f * dx;
+                sy += f * dy;
+            }
+            ax[i] = g * sx;
+            ay[i] = g * sy;
+        }
+    }
+}
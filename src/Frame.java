@@ -0,0 +1,46 @@
+/**
+ * Copy of the drawable body state at one tick
+ * The simulation fills a Frame and publishes it through a FrameBuffer;
+ * after that only the painter reads it, so painting never sees a body list
+ * that is halfway through a tick.
+ */
+public class Frame {
+
+    // Parallel arrays, valid in [0, count)
+    double[] x = new double[0], y = new double[0];   // center position
+    double[] r = new double[0];                      // radius
+    byte[] color = new byte[0];                      // color index, see MassiveMotion.PALETTE
+    int count;
+    long tick;   // simulation tick this frame was taken at
+    long seq;    // publish order, set by FrameBuffer
+
+    // Makes room for n bodies; old contents are not kept
+    void ensureCapacity(int n) {
+        if (x.length >= n) {
+            return;
+        }
+        int cap = Math.max(n, x.length * 2);
+        x = new double[cap];
+        y = new double[cap];
+        r = new double[cap];
+        color = new byte[cap];
+    }
+
+    /**
+     * Returns the number of bodies in this frame.
+     *
+     * @return the body count
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Returns the simulation tick this frame was taken at.
+     *
+     * @return the tick number
+     */
+    public long tick() {
+        return tick;
+    }
+}
@@ -0,0 +1,72 @@
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Triple buffer handing Frames from one writer thread to one reader thread
+ * The writer fills back(), then publish() swaps it with the shared middle
+ * slot. The reader's latest() swaps the middle slot with its own front
+ * frame only if something newer was published. Neither side ever waits
+ * for the other, and no frame is written while it is being read.
+ */
+public class FrameBuffer {
+
+    private final AtomicReference<Frame> middle = new AtomicReference<>(new Frame());
+    private Frame back = new Frame();    // writer only
+    private Frame front = new Frame();   // reader only
+    private long published;              // writer only: seq of the last publish
+    private volatile long taken;         // seq of the newest frame the reader has picked up
+    private volatile long dropped;       // reader only: frames replaced before being picked up
+
+    /**
+     * Returns the frame the writer should fill next. Writer thread only.
+     *
+     * @return the back frame
+     */
+    public Frame back() {
+        return back;
+    }
+
+    /**
+     * Publishes the back frame and takes a free one for the next fill.
+     * Writer thread only.
+     */
+    public void publish() {
+        back.seq = ++published;
+        back = middle.getAndSet(back);
+    }
+
+    /**
+     * Returns true if the reader has already picked up everything that was
+     * published, so filling a new frame will not be wasted. Writer thread only.
+     *
+     * @return {@code true} if a new frame would be read
+     */
+    public boolean wanted() {
+        return taken >= published;
+    }
+
+    /**
+     * Returns the newest published frame, or null if nothing has been
+     * published yet. The frame stays valid until the next call. Reader
+     * thread only.
+     *
+     * @return the latest frame
+     */
+    public Frame latest() {
+        if (middle.get().seq > front.seq) {
+            front = middle.getAndSet(front);
+            dropped += front.seq - taken - 1;
+            taken = front.seq;
+        }
+        return front.seq == 0 ? null : front;
+    }
+
+    /**
+     * Returns how many published frames were replaced by a newer one before
+     * the reader got to them. Safe to call from any thread.
+     *
+     * @return frames never picked up
+     */
+    public long dropped() {
+        return dropped;
+    }
+}
@@ -0,0 +1,141 @@
+import java.io.IOException;
+
+/**
+ * Batch mode with no window (--headless or headless=true)
+ * Runs a fixed number of ticks back to back on the calling thread, using
+ * world_size_x/y (window_size_x/y if unset) as the world bounds, then
+ * prints throughput. Never touches Swing or AWT, so it runs on machines
+ * without a display.
+ *
+ * Usage: java HeadlessRunner <path-to-properties> [--ticks N]
+ *    or: java MassiveMotion <path-to-properties> --headless [--ticks N]
+ */
+public class HeadlessRunner {
+
+    /**
+     * Returns true if the command line or the properties file asks for a
+     * headless run.
+     *
+     * @param args command line arguments, properties file first
+     * @param cfg the already loaded properties file
+     * @return {@code true} if the run should be headless
+     */
+    public static boolean requested(String[] args, Config cfg) {
+        for (String a : args) {
+            if (a.equals("--headless")) {
+                return true;
+            }
+        }
+        return cfg.headless();
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.err.println("Usage: java HeadlessRunner <path-to-properties> [--ticks N]");
+            System.exit(1);
+        }
+        run(args, new Config(args[0]));
+    }
+
+    /**
+     * Runs the batch described by cfg, with --ticks N from the command
+     * line overriding headless_ticks.
+     *
+     * @param args command line arguments, properties file first
+     * @param cfg the already loaded properties file
+     */
+    public static void run(String[] args, Config cfg) {
+        int ticks = cfg.headlessTicks();
+        for (int i = 1; i < args.length - 1; i++) {
+            if (args[i].equals("--ticks")) {
+                try {
+                    ticks = Math.max(1, Integer.parseInt(args[i + 1]));
+                } catch (NumberFormatException e) {
+                    System.err.println("Warning: Invalid tick count '" + args[i + 1] + "', using " + ticks);
+                }
+            }
+        }
+
+        Simulation sim = new Simulation(cfg);
+        if (!cfg.snapshotLoad().isEmpty()) {
+            try {
+                Snapshot snap = Snapshot.read(cfg.snapshotLoad());
+                sim.restore(snap);
+                System.out.printf("Restored %d bodies at tick %d from %s%n", snap.count(), snap.tick(), cfg.snapshotLoad());
+            } catch (IOException e) {
+                System.err.println("Warning: cannot load snapshot, starting fresh: " + e.getMessage());
+            }
+        }
+        Metrics metrics = new Metrics(sim, cfg.listType());
+        metrics.register();
+        Thread csv = null;
+        if (!cfg.metricsCsv().isEmpty()) {
+            try {
+                csv = metrics.startCsv(cfg.metricsCsv(), cfg.metricsInterval());
+            } catch (IOException e) {
+                System.err.println("Warning: cannot write metrics to " + cfg.metricsCsv() + ": " + e.getMessage());
+            }
+        }
+        System.out.printf("Headless: %dx%d world, list=%s, gravity=%s, integrator=%s, threads=%d, %d ticks, seed=%d%n",
+                cfg.worldW(), cfg.worldH(), cfg.listType(), sim.gravityMode(), sim.integratorMode(), cfg.simThreads(), ticks, sim.seed());
+
+        long bodyTicks = 0;   // sum of live bodies over all ticks
+        int peak = 0;
+        long start = System.nanoTime();
+        for (int t = 0; t < ticks; t++) {
+            sim.step();
+            int n = sim.bodyCount();
+            bodyTicks += n;
+            if (n > peak) {
+                peak = n;
+            }
+        }
+        double wall = (System.nanoTime() - start) / 1e9;
+        if (!cfg.snapshotSave().isEmpty()) {
+            try {
+                sim.snapshot().write(cfg.snapshotSave());
+                System.out.printf("Saved %d bodies at tick %d to %s%n", sim.bodyCount(), sim.tick(), cfg.snapshotSave());
+            } catch (IOException e) {
+                System.err.println("Warning: cannot save snapshot: " + e.getMessage());
+            }
+        }
+        sim.shutdown();
+        if (csv != null) {
+            csv.interrupt();
+        }
+
+        System.out.printf("Wall time: %.3f s%n", wall);
+        System.out.printf("Ticks/sec: %.1f%n", ticks / wall);
+        System.out.printf("Bodies/tick: %.1f average, %d peak, %d at end%n",
+                (double) bodyTicks / ticks, peak, sim.bodyCount());
+        System.out.printf("Tick time: %.1f us mean, %.1f us p50, %.1f us p99, %.1f us max%n",
+                metrics.getTickMeanMicros(), metrics.getTickP50Micros(),
+                metrics.getTickP99Micros(), metrics.getTickMaxMicros());
+        System.out.printf("Spawned %d, culled %d, GC %d collections / %d ms%n",
+                metrics.getSpawned(), metrics.getCulled(), metrics.getGcCount(), metrics.getGcTimeMs());
+        System.out.printf("Integrator: %s, %.2f substeps/tick (max %d), %.2f force evaluations/tick%n",
+                sim.integratorMode(), (double) sim.substepCount() / ticks, sim.substepMax(),
+                sim.gravityMode().equals("none") ? 0.0 : (double) sim.substepCount() * sim.forceEvaluations() / ticks);
+        if (sim.energySamples() > 0) {
+            System.out.printf("Energy drift: %d samples, %+.3e mean dE/E per tick, %.3e max |dE/E|%n",
+                    sim.energySamples(), sim.energyDriftMean(), sim.energyDriftMax());
+        }
+        if (cfg.starCapture()) {
+            System.out.printf("Star capture: %d bodies, %.3g mass (%.1f bodies/s, %.3g mass/s)%n",
+                    sim.capturedBodies(), sim.capturedMass(),
+                    sim.capturedBodies() / wall, sim.capturedMass() / wall);
+        }
+        if (cfg.collisions()) {
+            System.out.printf("Collisions: %d bodies absorbed%n", sim.mergeCount());
+        }
+        TrajectoryRecorder rec = sim.recorder();
+        if (rec != null) {
+            System.out.printf("Trajectory: %d records (%d dropped), %d bytes to %s%n",
+                    rec.recorded(), rec.dropped(), rec.bytesWritten(), rec.filename());
+        }
+        if (!cfg.listType().equals("soa")) {
+            System.out.printf("Body pool: %d pooled, %d hits, %d misses%n",
+                    sim.bodyPoolSize(), sim.bodyPoolHits(), sim.bodyPoolMisses());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/**
+ * Advances body positions and velocities through one step of length dt.
+ * Works on parallel arrays and gets accelerations from a Field, so the
+ * same integrator serves both body stores and every force engine. Nothing
+ * is kept between calls, so a restored snapshot carries on exactly.
+ */
+public interface Integrator {
+
+    /**
+     * Source of the accelerations at the current positions.
+     */
+    public interface Field {
+
+        /**
+         * Fills ax and ay for bodies [0, n) with their acceleration at x, y.
+         *
+         * @param x body x positions
+         * @param y body y positions
+         * @param m body masses
+         * @param n number of bodies
+         * @param ax output x accelerations
+         * @param ay output y accelerations
+         * @return {@code false} if there is no gravity (ax and ay untouched)
+         */
+        public boolean accelerations(double[] x, double[] y, double[] m, int n, double[] ax, double[] ay);
+    }
+
+    /**
+     * Moves bodies [0, n) forward by dt ticks.
+     *
+     * @param field accelerations at given positions
+     * @param x positions, updated in place
+     * @param y positions, updated in place
+     * @param vx velocities, updated in place
+     * @param vy velocities, updated in place
+     * @param m masses
+     * @param n number of bodies
+     * @param dt step length in ticks
+     * @param ax scratch for x accelerations (length at least n)
+     * @param ay scratch for y accelerations (length at least n)
+     */
+    public void step(Field field, double[] x, double[] y, double[] vx, double[] vy, double[] m,
+                     int n, double dt, double[] ax, double[] ay);
+
+    /**
+     * Returns how many times step() asks the field for accelerations.
+     *
+     * @return force evaluations per step
+     */
+    public int evaluations();
+}
@@ -0,0 +1,31 @@
+/**
+ * Euler implementation of Integrator (integrator=euler)
+ * Kicks every velocity by a full step of acceleration, then moves every
+ * body by its new velocity: the update MassiveMotion has always used.
+ * Because the kick comes first this is the semi-implicit (symplectic)
+ * form, so energy wobbles rather than growing without bound, but it is
+ * only first order and the velocities sit half a step away from the
+ * positions.
+ */
+public class IntegratorImpl_Euler implements Integrator {
+
+    @Override
+    public void step(Field field, double[] x, double[] y, double[] vx, double[] vy, double[] m,
+                     int n, double dt, double[] ax, double[] ay) {
+        if (field.accelerations(x, y, m, n, ax, ay)) {
+            for (int i = 0; i < n; i++) {
+                vx[i] += ax[i] * dt;
+                vy[i] += ay[i] * dt;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            x[i] += vx[i] * dt;
+            y[i] += vy[i] * dt;
+        }
+    }
+
+    @Override
+    public int evaluations() {
+        return 1;
+    }
+}
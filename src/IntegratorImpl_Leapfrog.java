@@ -0,0 +1,34 @@
+/**
+ * Leapfrog implementation of Integrator (integrator=leapfrog)
+ * Drift-kick-drift: every body moves half a step, takes a full step of
+ * the acceleration found there, then moves the other half. Second order
+ * and symplectic, with one force evaluation per step like Euler, and the
+ * positions and velocities line up at the end of every step.
+ */
+public class IntegratorImpl_Leapfrog implements Integrator {
+
+    @Override
+    public void step(Field field, double[] x, double[] y, double[] vx, double[] vy, double[] m,
+                     int n, double dt, double[] ax, double[] ay) {
+        double h = dt * 0.5;
+        for (int i = 0; i < n; i++) {
+            x[i] += vx[i] * h;
+            y[i] += vy[i] * h;
+        }
+        if (field.accelerations(x, y, m, n, ax, ay)) {
+            for (int i = 0; i < n; i++) {
+                vx[i] += ax[i] * dt;
+                vy[i] += ay[i] * dt;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            x[i] += vx[i] * h;
+            y[i] += vy[i] * h;
+        }
+    }
+
+    @Override
+    public int evaluations() {
+        return 1;
+    }
+}
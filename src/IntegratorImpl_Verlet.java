@@ -0,0 +1,38 @@
+/**
+ * Velocity Verlet implementation of Integrator (integrator=verlet)
+ * Kick-drift-kick: half a step of the acceleration at the start, a full
+ * move, then half a step of the acceleration at the new positions.
+ * Second order and symplectic like leapfrog, but it evaluates forces at
+ * both ends of the step. The acceleration from the end of one step is not
+ * kept for the next, because spawning, merging and culling change the
+ * bodies in between; that costs a second force evaluation per step.
+ */
+public class IntegratorImpl_Verlet implements Integrator {
+
+    @Override
+    public void step(Field field, double[] x, double[] y, double[] vx, double[] vy, double[] m,
+                     int n, double dt, double[] ax, double[] ay) {
+        double h = dt * 0.5;
+        if (field.accelerations(x, y, m, n, ax, ay)) {
+            for (int i = 0; i < n; i++) {
+                vx[i] += ax[i] * h;
+                vy[i] += ay[i] * h;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            x[i] += vx[i] * dt;
+            y[i] += vy[i] * dt;
+        }
+        if (field.accelerations(x, y, m, n, ax, ay)) {
+            for (int i = 0; i < n; i++) {
+                vx[i] += ax[i] * h;
+                vy[i] += ay[i] * h;
+            }
+        }
+    }
+
+    @Override
+    public int evaluations() {
+        return 2;
+    }
+}
@@ -0,0 +1,144 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Log-linear latency histogram in the style of HdrHistogram
+ * Values (nanoseconds) below 64 get a bucket each; above that every power
+ * of two is split into 32 equal buckets, so any recorded value is known to
+ * within about 3%. Recording is a couple of array writes with no locking
+ * or allocation.
+ *
+ * One thread records; any thread may read. Readers see a histogram that
+ * only ever grows, and take copy() snapshots and since() differences to
+ * look at one interval.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB = 32;                    // buckets per power of two
+    private static final int MAX_SHIFT = 40;              // values up to ~2^46 ns (~19 hours)
+    private static final int BUCKETS = 2 * SUB + MAX_SHIFT * SUB;
+
+    private final AtomicLongArray counts;
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+
+    // Empty histogram
+    public LatencyHistogram() {
+        counts = new AtomicLongArray(BUCKETS);
+    }
+
+    /**
+     * Records one value. Only one thread may call this.
+     *
+     * @param nanos the latency in nanoseconds (negative values count as 0)
+     */
+    public void record(long nanos) {
+        long v = Math.max(0, nanos);
+        int i = index(v);
+        // single writer, so a plain read-increment-publish is enough
+        counts.lazySet(i, counts.get(i) + 1);
+        sum.lazySet(sum.get() + v);
+        total.lazySet(total.get() + 1);
+    }
+
+    /**
+     * Returns a copy of the current counts that later recording does not
+     * change.
+     *
+     * @return a snapshot of this histogram
+     */
+    public LatencyHistogram copy() {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int i = 0; i < BUCKETS; i++) {
+            h.counts.lazySet(i, counts.get(i));
+        }
+        h.sum.set(sum.get());
+        h.total.set(total.get());
+        return h;
+    }
+
+    /**
+     * Returns what was recorded after the earlier snapshot was taken.
+     *
+     * @param earlier an older copy() of this histogram
+     * @return the difference, as a new histogram
+     */
+    public LatencyHistogram since(LatencyHistogram earlier) {
+        LatencyHistogram h = new LatencyHistogram();
+        for (int i = 0; i < BUCKETS; i++) {
+            h.counts.lazySet(i, Math.max(0, counts.get(i) - earlier.counts.get(i)));
+        }
+        h.sum.set(sum.get() - earlier.sum.get());
+        h.total.set(total.get() - earlier.total.get());
+        return h;
+    }
+
+    /** @return number of values recorded. */
+    public long count() {
+        return total.get();
+    }
+
+    /** @return mean of the recorded values in nanoseconds, 0 if empty. */
+    public double mean() {
+        long n = total.get();
+        return n == 0 ? 0 : (double) sum.get() / n;
+    }
+
+    /**
+     * Returns the value below which the given share of the recorded values
+     * fall, as the top of the bucket holding it.
+     *
+     * @param percentile between 0 and 100
+     * @return the latency in nanoseconds, 0 if empty
+     */
+    public long percentile(double percentile) {
+        long seen = 0;
+        long n = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            n += counts.get(i);
+        }
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * n));
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return highest(i);
+            }
+        }
+        return highest(BUCKETS - 1);
+    }
+
+    /** @return the largest recorded value (to bucket precision), 0 if empty. */
+    public long max() {
+        for (int i = BUCKETS - 1; i >= 0; i--) {
+            if (counts.get(i) != 0) {
+                return highest(i);
+            }
+        }
+        return 0;
+    }
+
+    // Bucket of value v: v itself below 2*SUB, else SUB buckets per power of two
+    private static int index(long v) {
+        if (v < 2 * SUB) {
+            return (int) v;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(v) - 5;   // v >> shift is in [SUB, 2*SUB)
+        if (shift > MAX_SHIFT) {
+            return BUCKETS - 1;
+        }
+        return 2 * SUB + (shift - 1) * SUB + (int) (v >> shift) - SUB;
+    }
+
+    // Largest value that falls in bucket i
+    private static long highest(int i) {
+        if (i < 2 * SUB) {
+            return i;
+        }
+        int shift = (i - 2 * SUB) / SUB + 1;
+        long sub = (i - 2 * SUB) % SUB + SUB;
+        return ((sub + 1) << shift) - 1;
+    }
+}
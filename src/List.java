@@ -1,5 +1,7 @@
+import java.util.Iterator;
+import java.util.function.Predicate;
 
-public interface List<T> {
+public interface List<T> extends Iterable<T> {
 
     /**
      * Inserts an element at the given position, shifting subsequent elements
@@ -38,10 +40,45 @@ public interface List<T> {
      */
     public T remove(int index);
 
+    /**
+     * Removes every element matching the filter in a single pass over the
+     * list, keeping the survivors in their original order.
+     *
+     * @param filter returns {@code true} for elements to remove
+     * @return {@code true} if any element was removed
+     */
+    public boolean removeIf(Predicate<? super T> filter);
+
     /**
      * Returns the number of elements currently stored in the list.
      *
      * @return the size of the list
      */
     public int size();
+
+    /**
+     * Returns a cursor positioned before the first element. Walking the whole
+     * list with it (and removing through it) costs O(n) in total.
+     *
+     * @return a forward cursor over this list
+     */
+    public ListCursor<T> cursor();
+
+    /**
+     * Returns a cursor positioned after the last element, for sweeping the
+     * list backwards with previous().
+     *
+     * @return a cursor starting at the end of this list
+     */
+    public ListCursor<T> cursorAtEnd();
+
+    /**
+     * Lets the list be used in for-each loops. Same as cursor().
+     *
+     * @return an iterator over the elements in order
+     */
+    @Override
+    public default Iterator<T> iterator() {
+        return cursor();
+    }
 }
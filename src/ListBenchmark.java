@@ -0,0 +1,219 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * Micro-benchmark of the List implementations under the simulation's
+ * access pattern
+ * One benchmark "tick" on a population of n bodies:
+ *   - appends n/100 spawns with add(size, x)
+ *   - sweeps every body once to move it
+ *   - removes n/100 bodies by index, from the end backwards
+ * The sweep is measured two ways: "indexed" (get(i) in a for loop, the
+ * original MassiveMotion pattern) and "cursor" (for-each over the list).
+ *
+ * For each implementation and size it prints ticks/sec, bytes allocated
+ * per tick (from the thread allocation counter) and GC count/time during
+ * the measurement window.
+ *
+ * This is a quick smoke run on one JVM. The comparison to quote is the JMH
+ * benchmark in jmh/ (mvn -P jmh package), which drives the same
+ * populated() and tick() below with forks, warmup iterations and a
+ * blackhole. Indexed sweeps over lists whose get(i) walks nodes are O(n^2)
+ * per tick, so above INDEXED_LIMIT bodies those runs are skipped here.
+ *
+ * Usage: java ListBenchmark [warmupMs] [measureMs] [size ...]
+ *   default: 1000 2000 1000 10000 100000
+ */
+public class ListBenchmark {
+
+    private static final String[] TYPES = { "arraylist", "single", "double", "dummyhead", "unrolled", "ring" };
+
+    // Lists whose get(i) walks from an end, and the most bodies to sweep
+    // them by index; a 100k sweep takes seconds per tick
+    private static final String[] LINEAR_GET = { "single", "double", "dummyhead" };
+    private static final int INDEXED_LIMIT = 20000;
+
+    // Stand-in for a CelestialBody
+    static final class Body {
+        double x, y, vx, vy;
+
+        Body(double x, double y, double vx, double vy) {
+            this.x = x;
+            this.y = y;
+            this.vx = vx;
+            this.vy = vy;
+        }
+    }
+
+    private static double sink;   // keeps the JIT from dropping the sweeps
+
+    public static void main(String[] args) {
+        long warmupMs = args.length > 0 ? Long.parseLong(args[0]) : 1000;
+        long measureMs = args.length > 1 ? Long.parseLong(args[1]) : 2000;
+        int[] sizes = { 1000, 10000, 100000 };
+        if (args.length > 2) {
+            sizes = new int[args.length - 2];
+            for (int i = 2; i < args.length; i++) {
+                sizes[i - 2] = Integer.parseInt(args[i]);
+            }
+        }
+
+        System.out.printf("%-10s %-8s %8s %14s %14s %6s %8s%n",
+                "list", "sweep", "bodies", "ticks/sec", "bytes/tick", "gcs", "gc ms");
+        for (int n : sizes) {
+            for (String type : TYPES) {
+                for (boolean indexed : new boolean[] { true, false }) {
+                    run(type, n, indexed, warmupMs, measureMs);
+                }
+            }
+        }
+        if (sink == 42) {
+            System.out.println();
+        }
+    }
+
+    /**
+     * Creates an empty list of the given type, using the same names as the
+     * list property in MassiveMotion.txt.
+     *
+     * @param type list type name
+     * @return a new empty list
+     */
+    static <T> List<T> newList(String type) {
+        if (type.equals("single")) {
+            return new ListImpl_Linked<>();
+        } else if (type.equals("double")) {
+            return new ListImpl_Double<>();
+        } else if (type.equals("dummyhead")) {
+            return new ListImpl_DummyHead<>();
+        } else if (type.equals("unrolled")) {
+            return new ListImpl_Unrolled<>();
+        } else if (type.equals("ring")) {
+            return new ListImpl_Ring<>();
+        }
+        return new ListImpl_ArrayList<>();
+    }
+
+    /**
+     * Creates a list of the given type holding n bodies, ready for tick().
+     *
+     * @param type list type name, as for newList
+     * @param n number of bodies
+     * @return the filled list
+     */
+    public static List<Body> populated(String type, int n) {
+        List<Body> list = newList(type);
+        for (int i = 0; i < n; i++) {
+            list.add(list.size(), new Body(i, i, 1, 1));
+        }
+        return list;
+    }
+
+    /**
+     * Bodies spawned and removed per tick on a population of n.
+     *
+     * @param n number of bodies
+     * @return n / 100, at least 1
+     */
+    public static int churn(int n) {
+        return Math.max(1, n / 100);
+    }
+
+    private static void run(String type, int n, boolean indexed, long warmupMs, long measureMs) {
+        if (indexed && n > INDEXED_LIMIT && Arrays.asList(LINEAR_GET).contains(type)) {
+            System.out.printf("%-10s %-8s %8d %14s%n", type, "indexed", n, "skipped (O(n^2) sweep)");
+            return;
+        }
+        List<Body> list = populated(type, n);
+        int churn = churn(n);
+
+        // warmup: at least one tick, until warmupMs has passed
+        long end = System.nanoTime() + warmupMs * 1_000_000L;
+        do {
+            sink += tick(list, churn, indexed);
+        } while (System.nanoTime() < end);
+
+        long gcCount0 = gcCount();
+        long gcTime0 = gcTimeMs();
+        long alloc0 = allocatedBytes();
+        long start = System.nanoTime();
+        end = start + measureMs * 1_000_000L;
+        long ticks = 0;
+        long now;
+        do {
+            sink += tick(list, churn, indexed);
+            ticks++;
+            now = System.nanoTime();
+        } while (now < end);
+        long alloc = allocatedBytes() - alloc0;
+
+        double secs = (now - start) / 1e9;
+        System.out.printf("%-10s %-8s %8d %14.1f %14s %6d %8d%n",
+                type, indexed ? "indexed" : "cursor", n, ticks / secs,
+                alloc0 < 0 ? "n/a" : String.valueOf(alloc / ticks),
+                gcCount() - gcCount0, gcTimeMs() - gcTime0);
+    }
+
+    /**
+     * One simulated tick: spawn, sweep, remove from the end backwards.
+     * The list keeps its size from tick to tick.
+     *
+     * @param list list from populated()
+     * @param churn bodies to spawn and remove, see churn()
+     * @param indexed sweep with get(i) instead of a cursor
+     * @return sum of the moved x positions, for the caller to consume
+     */
+    public static double tick(List<Body> list, int churn, boolean indexed) {
+        for (int i = 0; i < churn; i++) {
+            list.add(list.size(), new Body(0, 0, 1, -1));
+        }
+
+        double acc = 0;
+        if (indexed) {
+            for (int i = 0; i < list.size(); i++) {
+                Body b = list.get(i);
+                b.x += b.vx;
+                b.y += b.vy;
+                acc += b.x;
+            }
+        } else {
+            for (Body b : list) {
+                b.x += b.vx;
+                b.y += b.vy;
+                acc += b.x;
+            }
+        }
+        // spread the removals over the list, highest index first
+        int stride = Math.max(1, list.size() / churn);
+        for (int k = 0, i = list.size() - 1; k < churn && i >= 0; k++, i -= stride) {
+            list.remove(i);
+        }
+        return acc;
+    }
+
+    // Bytes allocated so far by this thread, or -1 if the JVM can't tell
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private static long gcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionCount());
+        }
+        return total;
+    }
+
+    private static long gcTimeMs() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+}
@@ -0,0 +1,206 @@
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Randomized consistency check of the List implementations
+ * Runs a long random interleaving of add(i, x), add(x), remove(i),
+ * removeIf and cursor removes (walking forwards and backwards) on every
+ * list type, mirroring each operation on a java.util.ArrayList. After
+ * every operation it checks the tail two ways: cursorAtEnd().previous()
+ * must return the last element, and an add(size, x) must be readable back
+ * with get(size - 1) (it is then removed again from both lists). The full
+ * contents are compared every few operations, and for the ArrayList the
+ * same places also exercise ensureCapacity and trimToSize.
+ *
+ * Exits with status 1 and the failing operation on the first mismatch.
+ *
+ * Usage: java ListCheck [ops per list] [seed]
+ *   default: 200000 1
+ */
+public class ListCheck {
+
+    private static final String[] TYPES = { "single", "dummyhead", "arraylist", "double", "unrolled", "ring" };
+
+    // Biggest list the random walk aims for; removes win above it
+    private static final int TARGET = 64;
+
+    private static int next;   // value for the next element, never repeats
+
+    public static void main(String[] args) {
+        int ops = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 1;
+
+        boolean ok = true;
+        for (String type : TYPES) {
+            try {
+                check(type, ops, new Random(seed));
+                System.out.printf("%-10s ok (%d ops)%n", type, ops);
+            } catch (IllegalStateException e) {
+                System.out.printf("%-10s FAILED: %s%n", type, e.getMessage());
+                ok = false;
+            } catch (RuntimeException e) {
+                // the list itself threw, e.g. a cursor walking off a stale tail
+                System.out.printf("%-10s FAILED: %s%n", type, e);
+                ok = false;
+            }
+        }
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    // Runs ops random operations on one list type against the reference
+    private static void check(String type, int ops, Random rnd) {
+        List<Integer> list = ListBenchmark.newList(type);
+        ArrayList<Integer> ref = new ArrayList<>();
+
+        for (int op = 0; op < ops; op++) {
+            int n = ref.size();
+            int kind = rnd.nextInt(n > TARGET ? 10 : 7);
+            String what;
+            if (kind == 0) {
+                int i = rnd.nextInt(n + 1);
+                what = "add(" + i + ", x)";
+                list.add(i, next);
+                ref.add(i, next++);
+            } else if (kind == 1 || kind == 2) {
+                what = "add(x)";
+                list.add(next);
+                ref.add(next++);
+            } else if (kind == 3) {
+                what = "cursor walk forward with removes";
+                cursorRemoves(list, ref, rnd, true);
+            } else if (kind == 4) {
+                what = "cursor walk backward with removes";
+                cursorRemoves(list, ref, rnd, false);
+            } else if (kind == 5) {
+                int mod = 2 + rnd.nextInt(5);
+                int rem = rnd.nextInt(mod);
+                what = "removeIf(x % " + mod + " == " + rem + ")";
+                boolean a = list.removeIf(x -> x % mod == rem);
+                boolean b = ref.removeIf(x -> x % mod == rem);
+                expect(a == b, what + " returned " + a);
+            } else {
+                // kinds 6..9: remove by index, with the ends picked often
+                if (n == 0) {
+                    continue;
+                }
+                int pick = rnd.nextInt(4);
+                int i = pick == 0 ? 0 : pick == 1 ? n - 1 : rnd.nextInt(n);
+                what = "remove(" + i + ")";
+                int got = list.remove(i);
+                expect(got == ref.remove(i), what + " returned " + got);
+            }
+            tail(list, ref, op, what);
+            if (op % 16 == 0) {
+                contents(list, ref, op, what);
+                if (list instanceof ListImpl_ArrayList) {
+                    capacity((ListImpl_ArrayList<Integer>) list, ref, op);
+                }
+            }
+        }
+        contents(list, ref, ops, "end");
+    }
+
+    // Walks the whole list with a cursor in one direction, removing a random
+    // share of the elements through it
+    private static void cursorRemoves(List<Integer> list, ArrayList<Integer> ref, Random rnd, boolean forward) {
+        int share = rnd.nextInt(4);   // removes roughly share/4 of the elements
+        if (forward) {
+            ListCursor<Integer> c = list.cursor();
+            int i = 0;
+            while (c.hasNext()) {
+                int got = c.next();
+                expect(got == ref.get(i), "cursor next() at " + i + " returned " + got);
+                if (rnd.nextInt(4) < share) {
+                    c.remove();
+                    ref.remove(i);
+                } else {
+                    i++;
+                }
+            }
+            expect(i == ref.size(), "forward cursor stopped at " + i);
+        } else {
+            ListCursor<Integer> c = list.cursorAtEnd();
+            int i = ref.size() - 1;
+            while (c.hasPrevious()) {
+                int got = c.previous();
+                expect(got == ref.get(i), "cursor previous() at " + i + " returned " + got);
+                if (rnd.nextInt(4) < share) {
+                    c.remove();
+                    ref.remove(i);
+                }
+                i--;
+            }
+            expect(i == -1, "backward cursor stopped at " + i);
+        }
+    }
+
+    // Checks the tail through cursorAtEnd() and through an append at size
+    private static void tail(List<Integer> list, ArrayList<Integer> ref, int op, String what) {
+        int n = ref.size();
+        String at = " after op " + op + " " + what;
+        expect(list.size() == n, "size " + list.size() + ", expected " + n + at);
+
+        ListCursor<Integer> end = list.cursorAtEnd();
+        if (n == 0) {
+            expect(!end.hasPrevious(), "cursorAtEnd() of an empty list has a previous" + at);
+        } else {
+            expect(end.hasPrevious(), "cursorAtEnd() has no previous" + at);
+            int last = end.previous();
+            expect(last == ref.get(n - 1), "cursorAtEnd().previous() = " + last + ", expected " + ref.get(n - 1) + at);
+        }
+
+        int x = next++;
+        list.add(n, x);
+        ref.add(x);
+        int got = list.get(n);
+        expect(got == x, "get(size - 1) after add(size, x) = " + got + ", expected " + x + at);
+        got = list.remove(n);
+        ref.remove(n);
+        expect(got == x, "remove(size - 1) = " + got + ", expected " + x + at);
+    }
+
+    // Grows the array ahead of a burst of appends, which must then fit
+    // without a resize, and trims it back; neither may change the contents
+    private static void capacity(ListImpl_ArrayList<Integer> list, ArrayList<Integer> ref, int op) {
+        int n = ref.size();
+        int burst = op % 50;
+        list.ensureCapacity(n + burst);
+        int cap = list.capacity();
+        expect(cap >= n + burst, "capacity " + cap + " after ensureCapacity(" + (n + burst) + ") at op " + op);
+        contents(list, ref, op, "ensureCapacity");
+        for (int i = 0; i < burst; i++) {
+            list.add(next);
+            ref.add(next++);
+        }
+        expect(list.capacity() == cap, "burst of " + burst + " resized " + cap + " to " + list.capacity() + " at op " + op);
+        for (int i = 0; i < burst; i++) {
+            list.remove(n);
+            ref.remove(n);
+        }
+
+        list.trimToSize();
+        expect(list.capacity() == Math.max(1, n), "capacity " + list.capacity() + " after trimToSize() of " + n + " at op " + op);
+        contents(list, ref, op, "trimToSize");
+        tail(list, ref, op, "trimToSize");
+    }
+
+    // Compares every element, walking forwards with get(i) and a cursor
+    private static void contents(List<Integer> list, ArrayList<Integer> ref, int op, String what) {
+        String at = " after op " + op + " " + what;
+        ListCursor<Integer> c = list.cursor();
+        for (int i = 0; i < ref.size(); i++) {
+            int got = list.get(i);
+            expect(got == ref.get(i), "get(" + i + ") = " + got + ", expected " + ref.get(i) + at);
+            expect(c.hasNext() && c.next().equals(ref.get(i)), "cursor disagrees at " + i + at);
+        }
+        expect(!c.hasNext(), "cursor runs past size " + ref.size() + at);
+    }
+
+    private static void expect(boolean ok, String message) {
+        if (!ok) {
+            throw new IllegalStateException(message);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+import java.util.Iterator;
+
+/**
+ * Bidirectional cursor over a List<T>
+ * The cursor sits between two elements (like java.util.ListIterator):
+ * next() and previous() return the element they step over, and remove()
+ * drops the element most recently returned by either of them.
+ *
+ * @param <T> the type of elements in the list
+ */
+public interface ListCursor<T> extends Iterator<T> {
+
+    /**
+     * Returns true if there is an element after the cursor.
+     *
+     * @return {@code true} if next() would return an element
+     */
+    @Override
+    public boolean hasNext();
+
+    /**
+     * Returns the element after the cursor and moves the cursor past it.
+     *
+     * @return the next element
+     * @throws java.util.NoSuchElementException if there is no next element
+     */
+    @Override
+    public T next();
+
+    /**
+     * Returns true if there is an element before the cursor.
+     *
+     * @return {@code true} if previous() would return an element
+     */
+    public boolean hasPrevious();
+
+    /**
+     * Returns the element before the cursor and moves the cursor back over it.
+     *
+     * @return the previous element
+     * @throws java.util.NoSuchElementException if there is no previous element
+     */
+    public T previous();
+
+    /**
+     * Removes the element last returned by next() or previous().
+     * Can only be called once per call to next() / previous().
+     *
+     * @throws IllegalStateException if there is no element to remove
+     */
+    @Override
+    public void remove();
+}
@@ -1,7 +1,12 @@
-
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
 
 /**
  * ArrayList based implementation of the List<T> interface
+ * Shifts and resizes use System.arraycopy. The array doubles when full and
+ * halves once it falls to a quarter full (never below the initial
+ * capacity), so a burst of bodies does not keep its memory afterwards.
  *
  * @param <T> the type of elements stored in this list
  */
@@ -14,25 +19,81 @@ public class ListImpl_ArrayList<T> implements List<T> {
         return (T[]) new Object[cap]; 
         }
 
+    private static final int DEFAULT_CAPACITY = 10;
+
     private T[] arr;
     private int size;
+    private final int minCapacity;   // shrinking stops here
 
     // Initializing an empty resizable array list.
     public ListImpl_ArrayList() {
-        this.arr = newArray(10);
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty list with room for initialCapacity elements before
+     * the first resize. The array is never shrunk below this size.
+     *
+     * @param initialCapacity starting capacity (at least 1)
+     */
+    public ListImpl_ArrayList(int initialCapacity) {
+        this.minCapacity = Math.max(1, initialCapacity);
+        this.arr = newArray(minCapacity);
         this.size = 0;
     }
 
     private void growArray() {
-        int newCap = arr.length * 2; 
-        T[] newArr = newArray(newCap);
-        for (int i = 0; i < size; i++) newArr[i] = arr[i];
-        arr = newArr;
+        arr = Arrays.copyOf(arr, Math.max(arr.length * 2, size + 1));
+    }
+
+    // Halves the array while it is at most a quarter full. Growing happens
+    // at full and leaves it half full, so the two never thrash.
+    private void maybeShrink() {
+        int cap = arr.length;
+        while (cap / 2 >= minCapacity && size <= cap / 4) {
+            cap /= 2;
+        }
+        if (cap != arr.length) {
+            arr = Arrays.copyOf(arr, cap);
+        }
+    }
+
+    /**
+     * Grows the backing array, if needed, so it can hold at least
+     * capacity elements without another resize.
+     *
+     * @param capacity the number of elements to make room for
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > arr.length) {
+            arr = Arrays.copyOf(arr, Math.max(arr.length * 2, capacity));
+        }
+    }
+
+    /**
+     * Shrinks the backing array to the current size (but not below one
+     * slot), releasing any spare capacity.
+     */
+    public void trimToSize() {
+        if (arr.length > Math.max(1, size)) {
+            arr = Arrays.copyOf(arr, Math.max(1, size));
+        }
+    }
+
+    /**
+     * Returns the number of slots in the backing array.
+     *
+     * @return the current capacity
+     */
+    public int capacity() {
+        return arr.length;
     }
 
     /**
      * Inserts specified item at given position in the list.
-     * Shifts all elements at and after the position one slot to the right.
+     * Inserting at the end is a plain append with nothing to shift.
+     * Otherwise shifts all elements at and after the position one slot
+     * to the right.
      * If the internal array is full, the capacity is doubled before insertion.
      *
      * @param pos the position at which the item should be inserted
@@ -43,12 +104,14 @@ public class ListImpl_ArrayList<T> implements List<T> {
         if (pos < 0 || pos > size) {
             throw new IndexOutOfBoundsException("index=" + pos + ", size=" + size);
         }
+        if (pos == size) {
+            add(item);
+            return;
+        }
         if (size == arr.length) {
             growArray();
         }
-        for (int i = size; i > pos; i--) {
-            arr[i] = arr[i - 1];
-        }
+        System.arraycopy(arr, pos, arr, pos + 1, size - pos);
         arr[pos] = item;
         size++;
     }
@@ -85,7 +148,8 @@ public class ListImpl_ArrayList<T> implements List<T> {
 
     /**
      * Removes the element at the specified position in the list.
-     * Shifts all elements after the removed position one slot to the left.
+     * Shifts all elements after the removed position one slot to the left,
+     * then shrinks the array if it has become mostly empty.
      *
      * @param pos the index of the element to remove
      * @return the element that was removed
@@ -98,14 +162,39 @@ public class ListImpl_ArrayList<T> implements List<T> {
 
         T old = arr[pos];
 
-        for (int i = pos; i < size - 1; i++) {
-            arr[i] = arr[i + 1];
-        }
+        System.arraycopy(arr, pos + 1, arr, pos, size - pos - 1);
         arr[size - 1] = null;
         size--;
+        maybeShrink();
         return old;
     }
 
+    /**
+     * Removes every element matching the filter in one pass.
+     * Survivors are compacted toward the front with a read and a write
+     * index, so each element moves at most once. The array is shrunk
+     * afterwards if it has become mostly empty.
+     *
+     * @param filter returns true for elements to remove
+     * @return true if any element was removed
+     */
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        int w = 0;
+        for (int r = 0; r < size; r++) {
+            T item = arr[r];
+            if (!filter.test(item)) {
+                arr[w++] = item;
+            }
+        }
+        // clear the vacated tail so removed items can be collected
+        Arrays.fill(arr, w, size, null);
+        boolean removed = w != size;
+        size = w;
+        maybeShrink();
+        return removed;
+    }
+
     /**
      * Returns the number of elements currently stored in the list.
      *
@@ -115,4 +204,74 @@ public class ListImpl_ArrayList<T> implements List<T> {
     public int size() {
         return size;
     }
+
+    /**
+     * Returns a cursor positioned before the first element.
+     *
+     * @return a forward cursor over this list
+     */
+    @Override
+    public ListCursor<T> cursor() {
+        return new Cursor(0);
+    }
+
+    /**
+     * Returns a cursor positioned after the last element.
+     *
+     * @return a cursor starting at the end of this list
+     */
+    @Override
+    public ListCursor<T> cursorAtEnd() {
+        return new Cursor(size);
+    }
+
+    // Index based cursor; removing through it still shifts the tail.
+    private class Cursor implements ListCursor<T> {
+        int next;          // index next() would return
+        int lastRet = -1;  // index of the element last returned, -1 if none
+
+        Cursor(int start) {
+            next = start;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        @Override
+        public T next() {
+            if (next >= size) {
+                throw new NoSuchElementException();
+            }
+            lastRet = next;
+            return arr[next++];
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return next > 0;
+        }
+
+        @Override
+        public T previous() {
+            if (next <= 0) {
+                throw new NoSuchElementException();
+            }
+            lastRet = --next;
+            return arr[next];
+        }
+
+        @Override
+        public void remove() {
+            if (lastRet < 0) {
+                throw new IllegalStateException();
+            }
+            ListImpl_ArrayList.this.remove(lastRet);
+            if (lastRet < next) {
+                next--;
+            }
+            lastRet = -1;
+        }
+    }
 }
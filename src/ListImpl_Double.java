@@ -1,3 +1,6 @@
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
 /**
  * DoubleLinkedList based implementation of the List<T> interface
  *
@@ -17,11 +20,53 @@ public class ListImpl_Double<T> implements List<T> {
     Node head;
     Node tail;
 
-    // Empty list
+    // Free list of spare nodes, chained through next
+    private Node pool;
+    private int pooled;
+    private final int poolCap;
+
+    // Empty list, no node pooling
     public ListImpl_Double() {
+        this(0);
+    }
+
+    /**
+     * Creates an empty list that keeps up to poolCap removed nodes for reuse,
+     * so a list with steady adds and removes stops allocating nodes.
+     *
+     * @param poolCap maximum number of spare nodes to keep (0 disables pooling)
+     */
+    public ListImpl_Double(int poolCap) {
         size = 0;
         head = null;
         tail = null;
+        this.poolCap = Math.max(0, poolCap);
+    }
+
+    // Takes a node from the pool, or allocates one if the pool is empty
+    private Node obtain(T item) {
+        Node n = pool;
+        if (n == null) {
+            return new Node(item);
+        }
+        pool = n.next;
+        pooled--;
+        n.next = null;
+        n.data = item;
+        return n;
+    }
+
+    // Returns an unlinked node to the pool, dropping its data reference
+    private void recycle(Node n) {
+        n.data = null;
+        n.prev = null;
+        if (pooled < poolCap) {
+            n.next = pool;
+            pool = n;
+            pooled++;
+        } else {
+            n.next = null;
+        }
     }
 
     // Return node at index (0..size-1). Walk from nearer end.
@@ -53,14 +98,14 @@ public class ListImpl_Double<T> implements List<T> {
             throw new IndexOutOfBoundsException("index=" + pos + ", size=" + size);
         }
 
-        Node n = new Node(item);
-
         // append at tail
         if (pos == size) {
             add(item);
             return;
         }
 
+        Node n = obtain(item);
+
         // insert before current node at index pos (middle)
         Node nextNode = nodeAt(pos);
         Node prevNode = nextNode.prev;
@@ -88,7 +133,7 @@ public class ListImpl_Double<T> implements List<T> {
      */
     @Override
     public boolean add(T item) {
-        Node n = new Node(item);
+        Node n = obtain(item);
         if (size == 0) {
             head = tail = n;
         } else {
@@ -128,47 +173,54 @@ public class ListImpl_Double<T> implements List<T> {
             throw new IndexOutOfBoundsException("index=" + pos + ", size=" + size);
         }
 
-        // Removing head
-        if (pos == 0) {
-            Node old = head;
-            T val = old.data;
-            head = old.next;
-            if (head == null) {
-                tail = null;       
-            } else {
-                head.prev = null;
-            }
-            size--;
-            return val;
-        }
-
-        // Removing tail
-        if (pos == size - 1) {
-            Node old = tail;
-            T val = old.data;
-            tail = old.prev;
-            if (tail == null) {
-                head = null;        
-            } else {
-                tail.next = null;
-            }
-            size--;
-            return val;
-        }
+        return unlink(nodeAt(pos));
+    }
 
-        // Removing middle
-        Node target = nodeAt(pos);
+    // Detach a node from the chain, fixing head/tail as needed, and
+    // hand it back to the pool.
+    private T unlink(Node target) {
         T val = target.data;
         Node prevNode = target.prev;
         Node nextNode = target.next;
 
-        prevNode.next = nextNode;
-        nextNode.prev = prevNode;
+        if (prevNode == null) {
+            head = nextNode;
+        } else {
+            prevNode.next = nextNode;
+        }
+
+        if (nextNode == null) {
+            tail = prevNode;
+        } else {
+            nextNode.prev = prevNode;
+        }
 
         size--;
+        recycle(target);
         return val;
     }
 
+    /**
+     * Removes every element matching the filter in one pass.
+     * Matching nodes are unlinked as the sweep passes them.
+     *
+     * @param filter returns true for elements to remove
+     * @return true if any element was removed
+     */
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        int before = size;
+        Node cur = head;
+        while (cur != null) {
+            Node next = cur.next;
+            if (filter.test(cur.data)) {
+                unlink(cur);
+            }
+            cur = next;
+        }
+        return size != before;
+    }
+
     /**
      * Returns the number of elements currently stored in the list.
      *
@@ -178,4 +230,77 @@ public class ListImpl_Double<T> implements List<T> {
     public int size() {
         return size;
     }
+
+    /**
+     * Returns a cursor positioned before the first element.
+     *
+     * @return a forward cursor over this list
+     */
+    @Override
+    public ListCursor<T> cursor() {
+        return new Cursor(head);
+    }
+
+    /**
+     * Returns a cursor positioned after the last element.
+     *
+     * @return a cursor starting at the end of this list
+     */
+    @Override
+    public ListCursor<T> cursorAtEnd() {
+        return new Cursor(null);
+    }
+
+    // Node based cursor; every step and remove is O(1) in both directions.
+    private class Cursor implements ListCursor<T> {
+        Node next;     // node next() would return, null when at the end
+        Node lastRet;  // node last returned, null if none
+
+        Cursor(Node start) {
+            next = start;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            lastRet = next;
+            next = next.next;
+            return lastRet.data;
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return (next == null ? tail : next.prev) != null;
+        }
+
+        @Override
+        public T previous() {
+            Node p = (next == null) ? tail : next.prev;
+            if (p == null) {
+                throw new NoSuchElementException();
+            }
+            next = p;
+            lastRet = p;
+            return p.data;
+        }
+
+        @Override
+        public void remove() {
+            if (lastRet == null) {
+                throw new IllegalStateException();
+            }
+            if (lastRet == next) {
+                next = next.next;
+            }
+            unlink(lastRet);
+            lastRet = null;
+        }
+    }
 }
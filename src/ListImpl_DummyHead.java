@@ -1,3 +1,6 @@
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
 /**
  * DummyHeadedList based implementation of the List<T> interface
  *
@@ -18,10 +21,52 @@ public class ListImpl_DummyHead<T> implements List<T> {
     Node dummy;
     Node tail;
 
+    // Free list of spare nodes, chained through next
+    private Node pool;
+    private int pooled;
+    private final int poolCap;
+
+    // Empty list, no node pooling
     public ListImpl_DummyHead() {
+        this(0);
+    }
+
+    /**
+     * Creates an empty list that keeps up to poolCap removed nodes for reuse,
+     * so a list with steady adds and removes stops allocating nodes.
+     *
+     * @param poolCap maximum number of spare nodes to keep (0 disables pooling)
+     */
+    public ListImpl_DummyHead(int poolCap) {
         size = 0;
         dummy = new Node();
         tail = dummy;
+        this.poolCap = Math.max(0, poolCap);
+    }
+
+    // Takes a node from the pool, or allocates one if the pool is empty
+    private Node obtain(T item) {
+        Node n = pool;
+        if (n == null) {
+            return new Node(item);
+        }
+        pool = n.next;
+        pooled--;
+        n.next = null;
+        n.data = item;
+        return n;
+    }
+
+    // Returns an unlinked node to the pool, dropping its data reference
+    private void recycle(Node n) {
+        n.data = null;
+        if (pooled < poolCap) {
+            n.next = pool;
+            pool = n;
+            pooled++;
+        } else {
+            n.next = null;
+        }
     }
 
 
@@ -41,7 +86,7 @@ public class ListImpl_DummyHead<T> implements List<T> {
             throw new IndexOutOfBoundsException("index=" + pos + ", size=" + size);
         }
 
-        Node n = new Node(item);
+        Node n = obtain(item);
 
         if (pos == size) {
             tail.next = n;
@@ -77,7 +122,7 @@ public class ListImpl_DummyHead<T> implements List<T> {
      */
     @Override
     public boolean add(T item) {
-        Node n = new Node(item);
+        Node n = obtain(item);
         tail.next = n;
         tail = n;
         size++;
@@ -132,9 +177,36 @@ public class ListImpl_DummyHead<T> implements List<T> {
         }
 
         size--;
+        recycle(target);
         return val;
     }
 
+    /**
+     * Removes every element matching the filter in one pass.
+     * Matching nodes are unlinked as the sweep passes them; the tail
+     * ends up on the last surviving node.
+     *
+     * @param filter returns true for elements to remove
+     * @return true if any element was removed
+     */
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        int before = size;
+        Node prev = dummy;
+        while (prev.next != null) {
+            Node cur = prev.next;
+            if (filter.test(cur.data)) {
+                prev.next = cur.next;
+                size--;
+                recycle(cur);
+            } else {
+                prev = cur;
+            }
+        }
+        tail = prev;
+        return size != before;
+    }
+
     /**
      * Returns the number of elements currently stored in the list.
      *
@@ -144,4 +216,98 @@ public class ListImpl_DummyHead<T> implements List<T> {
     public int size() {
         return size;
     }
+
+    /**
+     * Returns a cursor positioned before the first element.
+     *
+     * @return a forward cursor over this list
+     */
+    @Override
+    public ListCursor<T> cursor() {
+        return new Cursor(dummy);
+    }
+
+    /**
+     * Returns a cursor positioned after the last element.
+     *
+     * @return a cursor starting at the end of this list
+     */
+    @Override
+    public ListCursor<T> cursorAtEnd() {
+        return new Cursor(tail);
+    }
+
+    // Returns the node before n (the dummy for the first real node). O(n) walk.
+    private Node nodeBefore(Node n) {
+        Node cur = dummy;
+        while (cur.next != n) {
+            cur = cur.next;
+        }
+        return cur;
+    }
+
+    // Node based cursor. The dummy stands in for "before the first node",
+    // so unlinking never has to special-case the head. Forward steps and
+    // removes are O(1); previous() re-walks from the dummy.
+    private class Cursor implements ListCursor<T> {
+        Node prev;         // node before the cursor (dummy at the front)
+        Node lastRet;      // node last returned, null if none
+        Node beforeLast;   // node before lastRet when it came from next()
+        boolean fromNext;  // whether lastRet came from next() or previous()
+
+        Cursor(Node prev) {
+            this.prev = prev;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return prev.next != null;
+        }
+
+        @Override
+        public T next() {
+            if (prev.next == null) {
+                throw new NoSuchElementException();
+            }
+            beforeLast = prev;
+            lastRet = prev.next;
+            prev = lastRet;
+            fromNext = true;
+            return lastRet.data;
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return prev != dummy;
+        }
+
+        @Override
+        public T previous() {
+            if (prev == dummy) {
+                throw new NoSuchElementException();
+            }
+            lastRet = prev;
+            prev = nodeBefore(prev);
+            fromNext = false;
+            return lastRet.data;
+        }
+
+        @Override
+        public void remove() {
+            if (lastRet == null) {
+                throw new IllegalStateException();
+            }
+            Node before = fromNext ? beforeLast : prev;
+            before.next = lastRet.next;
+            if (lastRet == tail) {
+                tail = before;
+            }
+            if (fromNext) {
+                prev = beforeLast;
+            }
+            size--;
+            recycle(lastRet);
+            lastRet = null;
+        }
+    }
 }
@@ -1,3 +1,6 @@
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
 
 /**
  * LinkedList based implementation of the List<T> interface
@@ -18,18 +21,62 @@ public class ListImpl_Linked<T> implements List<T> {
 
     int size;
     Node head;
+    Node tail;   // last node, null when empty
+
+    // Free list of spare nodes, chained through next
+    private Node pool;
+    private int pooled;
+    private final int poolCap;
 
-    // Empty list
+    // Empty list, no node pooling
     public ListImpl_Linked() {
+        this(0);
+    }
+
+    /**
+     * Creates an empty list that keeps up to poolCap removed nodes for reuse,
+     * so a list with steady adds and removes stops allocating nodes.
+     *
+     * @param poolCap maximum number of spare nodes to keep (0 disables pooling)
+     */
+    public ListImpl_Linked(int poolCap) {
         size = 0;
         head = null;
+        tail = null;
+        this.poolCap = Math.max(0, poolCap);
+    }
+
+    // Takes a node from the pool, or allocates one if the pool is empty
+    private Node obtain(T item) {
+        Node n = pool;
+        if (n == null) {
+            return new Node(item);
+        }
+        pool = n.next;
+        pooled--;
+        n.next = null;
+        n.data = item;
+        return n;
+    }
+
+    // Returns an unlinked node to the pool, dropping its data reference
+    private void recycle(Node n) {
+        n.data = null;
+        if (pooled < poolCap) {
+            n.next = pool;
+            pool = n;
+            pooled++;
+        } else {
+            n.next = null;
+        }
     }
 
 
     /**
      * Inserts specified item at given position in the list.
-     * New node is linked between the previous node and the node
-     * currently at the given position.
+     * Inserting at the end appends through the tail pointer in O(1).
+     * Otherwise the new node is linked between the previous node and
+     * the node currently at the given position.
      *
      * @param pos the index at which the item should be inserted
      * @param item the element to insert
@@ -40,7 +87,12 @@ public class ListImpl_Linked<T> implements List<T> {
             throw new IndexOutOfBoundsException("index=" + pos + ", size=" + size);
         }
 
-        Node n = new Node(item);
+        if (pos == size) {
+            add(item);
+            return;
+        }
+
+        Node n = obtain(item);
         Node prev = null;
         Node cur = head;
 
@@ -62,14 +114,15 @@ public class ListImpl_Linked<T> implements List<T> {
 
     /**
      * Appends the specified item to the end of the list.
-     * If the list is empty, the new node becomes the head.
+     * Runs in O(1) time using the tail pointer. If the list is empty,
+     * the new node becomes both head and tail.
      *
      * @param item the element to append
      * @return true (from list interface)
      */
     @Override
     public boolean add(T item) {
-        Node n = new Node(item);
+        Node n = obtain(item);
 
         // empty list
         if (size == 0) {
@@ -77,12 +130,9 @@ public class ListImpl_Linked<T> implements List<T> {
         }
         else {
             // append to end
-            Node cur = head;
-            while (cur.next != null) {
-                cur = cur.next;
-            }
-            cur.next = n;
+            tail.next = n;
         }
+        tail = n;
 
         size++;
         return true;
@@ -111,7 +161,8 @@ public class ListImpl_Linked<T> implements List<T> {
     /**
      * Removes the element at the specified position in the list.
      * Handles removal at the head as well as removal in the middle
-     * or at the end.
+     * or at the end, moving the tail pointer back when the last node
+     * is removed.
      *
      * @param pos the index of the element to remove
      * @return the element that was removed
@@ -125,9 +176,14 @@ public class ListImpl_Linked<T> implements List<T> {
         // remove head
         if (pos == 0) {
             Node node = head;
+            T val = node.data;
             head = head.next;
+            if (head == null) {
+                tail = null;
+            }
             size--;
-            return node.data;
+            recycle(node);
+            return val;
         }
 
         // remove middle/tail
@@ -136,9 +192,45 @@ public class ListImpl_Linked<T> implements List<T> {
             prev = prev.next;
         }
         Node target = prev.next;
+        T val = target.data;
         prev.next = target.next;
+        if (target == tail) {
+            tail = prev;
+        }
         size--;
-        return target.data;
+        recycle(target);
+        return val;
+    }
+
+    /**
+     * Removes every element matching the filter in one pass.
+     * Matching nodes are unlinked as the sweep passes them.
+     *
+     * @param filter returns true for elements to remove
+     * @return true if any element was removed
+     */
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        int before = size;
+        Node prev = null;
+        Node cur = head;
+        while (cur != null) {
+            Node next = cur.next;
+            if (filter.test(cur.data)) {
+                if (prev == null) {
+                    head = next;
+                } else {
+                    prev.next = next;
+                }
+                size--;
+                recycle(cur);
+            } else {
+                prev = cur;
+            }
+            cur = next;
+        }
+        tail = prev;
+        return size != before;
     }
 
     /**
@@ -150,5 +242,111 @@ public class ListImpl_Linked<T> implements List<T> {
     public int size() {
         return size;
     }
-    
+
+    /**
+     * Returns a cursor positioned before the first element.
+     *
+     * @return a forward cursor over this list
+     */
+    @Override
+    public ListCursor<T> cursor() {
+        return new Cursor(null, head);
+    }
+
+    /**
+     * Returns a cursor positioned after the last element.
+     *
+     * @return a cursor starting at the end of this list
+     */
+    @Override
+    public ListCursor<T> cursorAtEnd() {
+        return new Cursor(tail, null);
+    }
+
+    // Returns the node before n, or null if n is the head. O(n) walk.
+    private Node nodeBefore(Node n) {
+        if (n == head) {
+            return null;
+        }
+        Node cur = head;
+        while (cur.next != n) {
+            cur = cur.next;
+        }
+        return cur;
+    }
+
+    // Node based cursor. Forward steps and removes are O(1); previous()
+    // has to re-walk from the head since nodes have no back link.
+    private class Cursor implements ListCursor<T> {
+        Node prev;         // node before the cursor, null at the front
+        Node next;         // node after the cursor, null at the end
+        Node lastRet;      // node last returned, null if none
+        Node beforeLast;   // node before lastRet when it came from next()
+        boolean fromNext;  // whether lastRet came from next() or previous()
+
+        Cursor(Node prev, Node next) {
+            this.prev = prev;
+            this.next = next;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            beforeLast = prev;
+            lastRet = next;
+            prev = next;
+            next = next.next;
+            fromNext = true;
+            return lastRet.data;
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return prev != null;
+        }
+
+        @Override
+        public T previous() {
+            if (prev == null) {
+                throw new NoSuchElementException();
+            }
+            lastRet = prev;
+            next = prev;
+            prev = nodeBefore(prev);
+            fromNext = false;
+            return lastRet.data;
+        }
+
+        @Override
+        public void remove() {
+            if (lastRet == null) {
+                throw new IllegalStateException();
+            }
+            // the node in front of lastRet is beforeLast after next(), prev after previous()
+            Node before = fromNext ? beforeLast : prev;
+            if (before == null) {
+                head = lastRet.next;
+            } else {
+                before.next = lastRet.next;
+            }
+            if (lastRet == tail) {
+                tail = before;
+            }
+            if (fromNext) {
+                prev = beforeLast;
+            } else {
+                next = lastRet.next;
+            }
+            size--;
+            recycle(lastRet);
+            lastRet = null;
+        }
+    }
 }
@@ -0,0 +1,281 @@
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * Circular buffer based implementation of the List<T> interface
+ * Elements live in a power-of-two array starting at a moving head slot,
+ * so adding or removing at either end is O(1). Inserts and removes in the
+ * middle shift whichever side is shorter with System.arraycopy. The array
+ * doubles when full and halves once it drops to a quarter full, so memory
+ * taken by a spawn burst is given back afterwards.
+ *
+ * @param <T> the type of elements stored in this list
+ */
+public class ListImpl_Ring<T> implements List<T> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private Object[] buf;
+    private int head;   // slot of element 0
+    private int size;
+
+    // Empty ring with the minimum capacity
+    public ListImpl_Ring() {
+        buf = new Object[MIN_CAPACITY];
+        head = 0;
+        size = 0;
+    }
+
+    // Slot holding logical index i (i may be -1 or size)
+    private int slot(int i) {
+        return (head + i) & (buf.length - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T at(int i) {
+        return (T) buf[slot(i)];
+    }
+
+    // Copies len elements from logical index src to dst in chunks that do
+    // not wrap, in the direction that is safe for overlapping ranges
+    private void move(int src, int dst, int len) {
+        int cap = buf.length;
+        if (dst < src) {
+            while (len > 0) {
+                int s = slot(src), d = slot(dst);
+                int n = Math.min(len, Math.min(cap - s, cap - d));
+                System.arraycopy(buf, s, buf, d, n);
+                src += n;
+                dst += n;
+                len -= n;
+            }
+        } else {
+            while (len > 0) {
+                int s = slot(src + len - 1) + 1, d = slot(dst + len - 1) + 1;   // exclusive ends
+                int n = Math.min(len, Math.min(s, d));
+                System.arraycopy(buf, s - n, buf, d - n, n);
+                len -= n;
+            }
+        }
+    }
+
+    // Copies the elements into a new array of newCap slots, starting at slot 0
+    private void resize(int newCap) {
+        Object[] nb = new Object[newCap];
+        int first = Math.min(size, buf.length - head);
+        System.arraycopy(buf, head, nb, 0, first);
+        System.arraycopy(buf, 0, nb, first, size - first);
+        buf = nb;
+        head = 0;
+    }
+
+    // Halves the array while it is at most a quarter full
+    private void maybeShrink() {
+        while (buf.length > MIN_CAPACITY && size <= buf.length / 4) {
+            resize(buf.length / 2);
+        }
+    }
+
+    /**
+     * Inserts specified item at given position in the list.
+     * Index 0 and index size are O(1); otherwise the shorter side of the
+     * list is shifted one slot to make room.
+     *
+     * @param pos the position at which the item should be inserted
+     * @param item the element to insert
+     */
+    @Override
+    public void add(int pos, T item) {
+        if (pos < 0 || pos > size) {
+            throw new IndexOutOfBoundsException("index=" + pos + ", size=" + size);
+        }
+        if (size == buf.length) {
+            resize(buf.length * 2);
+        }
+        if (pos < size - pos) {
+            // shift the front part left by one
+            head = slot(-1);
+            move(1, 0, pos);
+        } else {
+            // shift the back part right by one
+            move(pos, pos + 1, size - pos);
+        }
+        buf[slot(pos)] = item;
+        size++;
+    }
+
+    /**
+     * Appends the specified item to the end of the list in O(1)
+     * (amortized over the occasional doubling).
+     *
+     * @param item the element to append
+     * @return true (from list interface)
+     */
+    @Override
+    public boolean add(T item) {
+        if (size == buf.length) {
+            resize(buf.length * 2);
+        }
+        buf[slot(size)] = item;
+        size++;
+        return true;
+    }
+
+    /**
+     * Returns the element at the specified position in the list.
+     *
+     * @param pos the index of the element to return
+     * @return the element at the specified position
+     */
+    @Override
+    public T get(int pos) {
+        if (pos < 0 || pos >= size) {
+            throw new IndexOutOfBoundsException("index=" + pos + ", size=" + size);
+        }
+        return at(pos);
+    }
+
+    /**
+     * Removes the element at the specified position in the list.
+     * Index 0 and index size-1 are O(1); otherwise the shorter side is
+     * shifted one slot to close the gap.
+     *
+     * @param pos the index of the element to remove
+     * @return the element that was removed
+     */
+    @Override
+    public T remove(int pos) {
+        if (pos < 0 || pos >= size) {
+            throw new IndexOutOfBoundsException("index=" + pos + ", size=" + size);
+        }
+        T old = at(pos);
+        if (pos < size - 1 - pos) {
+            // shift the front part right by one
+            move(0, 1, pos);
+            buf[head] = null;
+            head = slot(1);
+        } else {
+            // shift the back part left by one
+            move(pos + 1, pos, size - 1 - pos);
+            buf[slot(size - 1)] = null;
+        }
+        size--;
+        maybeShrink();
+        return old;
+    }
+
+    /**
+     * Removes every element matching the filter in one pass.
+     * Survivors are compacted toward the head with a read and a write
+     * index, then the array is shrunk if it is mostly empty.
+     *
+     * @param filter returns true for elements to remove
+     * @return true if any element was removed
+     */
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        int w = 0;
+        for (int r = 0; r < size; r++) {
+            T item = at(r);
+            if (!filter.test(item)) {
+                buf[slot(w++)] = item;
+            }
+        }
+        for (int i = w; i < size; i++) {
+            buf[slot(i)] = null;
+        }
+        boolean removed = w != size;
+        size = w;
+        maybeShrink();
+        return removed;
+    }
+
+    /**
+     * Returns the number of elements currently stored in the list.
+     *
+     * @return the number of elements in this list
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the number of slots in the backing array.
+     *
+     * @return the current capacity
+     */
+    public int capacity() {
+        return buf.length;
+    }
+
+    /**
+     * Returns a cursor positioned before the first element.
+     *
+     * @return a forward cursor over this list
+     */
+    @Override
+    public ListCursor<T> cursor() {
+        return new Cursor(0);
+    }
+
+    /**
+     * Returns a cursor positioned after the last element.
+     *
+     * @return a cursor starting at the end of this list
+     */
+    @Override
+    public ListCursor<T> cursorAtEnd() {
+        return new Cursor(size);
+    }
+
+    // Index based cursor; removing through it shifts the shorter side.
+    private class Cursor implements ListCursor<T> {
+        int next;          // index next() would return
+        int lastRet = -1;  // index of the element last returned, -1 if none
+
+        Cursor(int start) {
+            next = start;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < size;
+        }
+
+        @Override
+        public T next() {
+            if (next >= size) {
+                throw new NoSuchElementException();
+            }
+            lastRet = next;
+            return at(next++);
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return next > 0;
+        }
+
+        @Override
+        public T previous() {
+            if (next <= 0) {
+                throw new NoSuchElementException();
+            }
+            lastRet = --next;
+            return at(next);
+        }
+
+        @Override
+        public void remove() {
+            if (lastRet < 0) {
+                throw new IllegalStateException();
+            }
+            ListImpl_Ring.this.remove(lastRet);
+            if (lastRet < next) {
+                next--;
+            }
+            lastRet = -1;
+        }
+    }
+}
@@ -0,0 +1,395 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * Unrolled linked list implementation of the List<T> interface
+ * Each node holds a small array block of elements, so sweeps touch
+ * contiguous memory and inserts/removes only shift within one block.
+ * Full blocks split in half on insert; a block that drops below half full
+ * on remove absorbs its successor if they fit together. The last block
+ * found by get() is cached, so sequential get(i) sweeps are amortized O(1).
+ *
+ * @param <T> the type of elements stored in this list
+ */
+public class ListImpl_Unrolled<T> implements List<T> {
+
+    private static final int DEFAULT_BLOCK = 64;
+
+    // Block of up to blockSize elements
+    private class Node {
+        Object[] items = new Object[blockSize];
+        int count;
+        Node prev;
+        Node next;
+    }
+
+    private final int blockSize;
+    int size;
+    Node head;
+    Node tail;
+
+    // Last block located by index, and the list index of its first element
+    private Node cacheNode;
+    private int cacheStart;
+
+    // Empty list with the default block size
+    public ListImpl_Unrolled() {
+        this(DEFAULT_BLOCK);
+    }
+
+    /**
+     * Creates an empty list with the given number of elements per block.
+     *
+     * @param blockSize elements per block (at least 4)
+     */
+    public ListImpl_Unrolled(int blockSize) {
+        this.blockSize = Math.max(4, blockSize);
+        size = 0;
+        head = null;
+        tail = null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private T item(Node n, int i) {
+        return (T) n.items[i];
+    }
+
+    // Links a new empty block after prev (or at the front if prev is null)
+    private Node insertNodeAfter(Node prev) {
+        Node n = new Node();
+        n.prev = prev;
+        n.next = (prev == null) ? head : prev.next;
+        if (n.next == null) {
+            tail = n;
+        } else {
+            n.next.prev = n;
+        }
+        if (prev == null) {
+            head = n;
+        } else {
+            prev.next = n;
+        }
+        return n;
+    }
+
+    private void unlinkNode(Node n) {
+        if (n.prev == null) {
+            head = n.next;
+        } else {
+            n.prev.next = n.next;
+        }
+        if (n.next == null) {
+            tail = n.prev;
+        } else {
+            n.next.prev = n.prev;
+        }
+        if (cacheNode == n) {
+            cacheNode = null;
+        }
+    }
+
+    // Finds the block holding index pos (0 <= pos < size), starting from
+    // whichever of head, cached block or tail is closest. Leaves the block
+    // and its start index in cacheNode / cacheStart.
+    private Node locate(int pos) {
+        Node n = head;
+        int start = 0;
+        int dist = pos;
+        if (cacheNode != null && Math.abs(pos - cacheStart) < dist) {
+            n = cacheNode;
+            start = cacheStart;
+            dist = Math.abs(pos - cacheStart);
+        }
+        int tailStart = size - tail.count;
+        if (Math.abs(pos - tailStart) < dist) {
+            n = tail;
+            start = tailStart;
+        }
+        while (pos >= start + n.count) {
+            start += n.count;
+            n = n.next;
+        }
+        while (pos < start) {
+            n = n.prev;
+            start -= n.count;
+        }
+        cacheNode = n;
+        cacheStart = start;
+        return n;
+    }
+
+    /**
+     * Inserts specified item at given position in the list.
+     * Appending goes straight to the tail block. Otherwise the item is
+     * shifted into its block, splitting the block in half first if full.
+     *
+     * @param pos the index at which the item should be inserted
+     * @param item the element to insert
+     */
+    @Override
+    public void add(int pos, T item) {
+        if (pos < 0 || pos > size) {
+            throw new IndexOutOfBoundsException("index=" + pos + ", size=" + size);
+        }
+        if (pos == size) {
+            add(item);
+            return;
+        }
+
+        Node n = locate(pos);
+        int off = pos - cacheStart;
+
+        if (n.count == blockSize) {
+            // split: move the upper half into a new block after n
+            Node right = insertNodeAfter(n);
+            int half = blockSize / 2;
+            int moved = n.count - half;
+            System.arraycopy(n.items, half, right.items, 0, moved);
+            Arrays.fill(n.items, half, n.count, null);
+            right.count = moved;
+            n.count = half;
+            if (off > half) {
+                n = right;
+                off -= half;
+                cacheNode = right;
+                cacheStart += half;
+            }
+        }
+
+        System.arraycopy(n.items, off, n.items, off + 1, n.count - off);
+        n.items[off] = item;
+        n.count++;
+        size++;
+    }
+
+    /**
+     * Appends the specified item to the end of the list, starting a new
+     * tail block when the current one is full.
+     *
+     * @param item the element to append
+     * @return true (from list interface)
+     */
+    @Override
+    public boolean add(T item) {
+        if (tail == null || tail.count == blockSize) {
+            insertNodeAfter(tail);
+        }
+        tail.items[tail.count++] = item;
+        size++;
+        return true;
+    }
+
+    /**
+     * Returns the element at the specified position in the list.
+     *
+     * @param pos the index of the element to retrieve
+     * @return the element stored at the specified position
+     */
+    @Override
+    public T get(int pos) {
+        if (pos < 0 || pos >= size) {
+            throw new IndexOutOfBoundsException("index=" + pos + ", size=" + size);
+        }
+        Node n = locate(pos);
+        return item(n, pos - cacheStart);
+    }
+
+    /**
+     * Removes the element at the specified position in the list.
+     * Shifts the rest of its block left; an emptied block is unlinked and
+     * a block under half full absorbs its successor when both fit.
+     *
+     * @param pos the index of the element to remove
+     * @return the element that was removed
+     */
+    @Override
+    public T remove(int pos) {
+        if (pos < 0 || pos >= size) {
+            throw new IndexOutOfBoundsException("index=" + pos + ", size=" + size);
+        }
+        Node n = locate(pos);
+        T old = removeAt(n, pos - cacheStart);
+
+        Node next = n.next;
+        if (n.count > 0 && n.count < blockSize / 2 && next != null && n.count + next.count <= blockSize) {
+            System.arraycopy(next.items, 0, n.items, n.count, next.count);
+            n.count += next.count;
+            unlinkNode(next);
+        }
+        return old;
+    }
+
+    // Removes slot i of block n, unlinking the block if it empties
+    private T removeAt(Node n, int i) {
+        T old = item(n, i);
+        System.arraycopy(n.items, i + 1, n.items, i, n.count - i - 1);
+        n.items[--n.count] = null;
+        size--;
+        if (n.count == 0) {
+            unlinkNode(n);
+        }
+        return old;
+    }
+
+    /**
+     * Removes every element matching the filter in one pass.
+     * Survivors are packed forward across blocks with a read and a write
+     * position, leaving every block full except the last; blocks left
+     * empty at the end are dropped.
+     *
+     * @param filter returns true for elements to remove
+     * @return true if any element was removed
+     */
+    @Override
+    public boolean removeIf(Predicate<? super T> filter) {
+        int before = size;
+        Node w = head;   // write block
+        int wi = 0;      // write slot in w
+        for (Node r = head; r != null; r = r.next) {
+            for (int i = 0; i < r.count; i++) {
+                T item = item(r, i);
+                if (filter.test(item)) {
+                    size--;
+                    continue;
+                }
+                if (wi == blockSize) {
+                    w = w.next;
+                    wi = 0;
+                }
+                w.items[wi++] = item;
+            }
+        }
+
+        // clear the rest of the last written block and drop the blocks after it
+        cacheNode = null;
+        if (size == 0) {
+            head = tail = null;
+            return before != 0;
+        }
+        for (Node n = w; n != null; n = n.next) {
+            int from = (n == w) ? wi : 0;
+            if (from < n.count) {
+                Arrays.fill(n.items, from, n.count, null);
+            }
+        }
+        for (Node n = head; n != w; n = n.next) {
+            n.count = blockSize;
+        }
+        w.count = wi;
+        w.next = null;
+        tail = w;
+        return size != before;
+    }
+
+    /**
+     * Returns the number of elements currently stored in the list.
+     *
+     * @return the number of elements in this list
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a cursor positioned before the first element.
+     *
+     * @return a forward cursor over this list
+     */
+    @Override
+    public ListCursor<T> cursor() {
+        return new Cursor(head, 0);
+    }
+
+    /**
+     * Returns a cursor positioned after the last element.
+     *
+     * @return a cursor starting at the end of this list
+     */
+    @Override
+    public ListCursor<T> cursorAtEnd() {
+        return new Cursor(tail, tail == null ? 0 : tail.count);
+    }
+
+    // Block + slot cursor; every step and remove is O(1) plus a block-local shift.
+    private class Cursor implements ListCursor<T> {
+        Node node;              // block the cursor is in (null only when the list is empty)
+        int idx;                // slot in node the cursor sits before (0..node.count)
+        Node lastNode;          // block of the element last returned, null if none
+        int lastIdx;
+
+        Cursor(Node node, int idx) {
+            this.node = node;
+            this.idx = idx;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return node != null && (idx < node.count || node.next != null);
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (idx == node.count) {
+                node = node.next;
+                idx = 0;
+            }
+            lastNode = node;
+            lastIdx = idx;
+            return item(node, idx++);
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return node != null && (idx > 0 || node.prev != null);
+        }
+
+        @Override
+        public T previous() {
+            if (!hasPrevious()) {
+                throw new NoSuchElementException();
+            }
+            if (idx == 0) {
+                node = node.prev;
+                idx = node.count;
+            }
+            idx--;
+            lastNode = node;
+            lastIdx = idx;
+            return item(node, idx);
+        }
+
+        @Override
+        public void remove() {
+            if (lastNode == null) {
+                throw new IllegalStateException();
+            }
+            // node == lastNode here: the cursor never leaves a block between
+            // returning an element and removing it
+            if (lastIdx < idx) {
+                idx--;
+            }
+            removeAt(lastNode, lastIdx);
+            if (lastNode.count == 0) {
+                // block was unlinked: move to the start of the next block, or
+                // the end of the previous one
+                if (lastNode.next != null) {
+                    node = lastNode.next;
+                    idx = 0;
+                } else if (lastNode.prev != null) {
+                    node = lastNode.prev;
+                    idx = node.count;
+                } else {
+                    node = null;
+                    idx = 0;
+                }
+            }
+            cacheNode = null;   // later blocks moved down by one index
+            lastNode = null;
+        }
+    }
+}
@@ -2,39 +2,54 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.util.Random;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.io.IOException;
 
 public class MassiveMotion extends JPanel implements ActionListener {
 
+    private static final long serialVersionUID = 1L;
+
+    // Draw colors, indexed by BodyStore.STAR / TOP_BOTTOM / LEFT_RIGHT
+    static final Color[] PALETTE = { Color.RED, Color.WHITE, Color.CYAN };
+
     protected Timer tm;
- 
-    
-    private static class CelestialBody {
-        double x, y;      // center position
-        double vx, vy;    // velocity per tick
-        int r;            // radius
-        Color color;      // draw color
-
-        CelestialBody(double x, double y, double vx, double vy, int r, Color c) {
-            this.x = x;
-            this.y = y;
-            this.vx = vx;
-            this.vy = vy;
-            this.r = r;
-            this.color = c;
-        }
-    }
 
-    private List<CelestialBody> bodies;
-    private final Random rng = new Random();
+    // Bodies and the tick logic live here; this panel only draws its frames
+    private final Simulation sim;
+
+    // Draws the latest frame ("graphics" or "raster", see renderer property)
+    private final Renderer renderer;
+
+    // Pan/zoom over the world; drag, wheel, + - F 1 (see Camera)
+    private final Camera camera;
+
+    // Steps sim at sim_hz when sim_thread=true; null in timer mode
+    private SimThread simThread;
 
 
     // Holds all configuration values read from the properties file
     private Config cfg;
 
+    // Tick/paint timings and counters, exported over JMX (and CSV if set)
+    private final Metrics metrics;
+    private long lastTimerNs;   // when the previous timer tick arrived
+
+    // Star capture totals at the last once-a-second report
+    private long reportNs = System.nanoTime();
+    private long reportedBodies;
+    private double reportedMass;
 
-    public MassiveMotion(String propfile) {
-        cfg = new Config(propfile);
+
+    /**
+     * Builds the simulation and window state described by the properties
+     * file.
+     *
+     * @param propfile path of the properties file, watched when config_reload is set
+     * @param cfg the already loaded properties file
+     */
+    public MassiveMotion(String propfile, Config cfg) {
+        this.cfg = cfg;
 
         int width = cfg.windowW();
         int height = cfg.windowH();
@@ -43,167 +58,201 @@ public class MassiveMotion extends JPanel implements ActionListener {
         setPreferredSize(new Dimension(width, height));
         setBackground(Color.BLACK);
         setDoubleBuffered(true);
-        
-        String listType = cfg.listType(); // "arraylist" | "single" | "double" | "dummyhead"
-
-        if (listType.equals("arraylist")) {
-            bodies = new ListImpl_ArrayList<>();
-        } else if (listType.equals("single")) {
-            bodies = new ListImpl_Linked<>();
-        } else if (listType.equals("double")) {
-            bodies = new ListImpl_Double<>();
-        } else if (listType.equals("dummyhead")) {
-            bodies = new ListImpl_DummyHead<>();
-        } else {
-            System.err.println("Unknown list type '" + listType + "', defaulting to ArrayList_ListImpl.");
-            bodies = new ListImpl_ArrayList<>();
+        setFocusable(true);
+
+        // On a sim thread each step is 1/sim_hz of wall time, so it covers
+        // that fraction of a timer tick and the world keeps its timer-mode speed
+        sim = new Simulation(cfg, cfg.simThread() ? SimThread.timeStep(cfg.simHz(), delay) : 1);
+        if (!cfg.snapshotLoad().isEmpty()) {
+            try {
+                Snapshot snap = Snapshot.read(cfg.snapshotLoad());
+                sim.restore(snap);
+                sim.setBounds(cfg.worldW(), cfg.worldH());
+                System.out.printf("Restored %d bodies at tick %d from %s%n", snap.count(), snap.tick(), cfg.snapshotLoad());
+            } catch (IOException e) {
+                System.err.println("Warning: cannot load snapshot, starting fresh: " + e.getMessage());
+            }
         }
 
-        // Seeding the red star from config
-        double sx  = cfg.starX();      // star_position_x
-        double sy  = cfg.starY();      // star_position_y
-        int    sr  = cfg.starSize();   // star_size
-        double svx = cfg.starVx();     // star_velocity_x
-        double svy = cfg.starVy();     // star_velocity_y
-        bodies.add(0, new CelestialBody(sx, sy, svx, svy, sr, Color.RED));
-
-            
-        System.out.printf("Loaded: %dx%d window, %dms delay, using list=%s%n", width, height, delay, listType);
-
-        tm = new Timer(delay, this); 
-        tm.start();
-
-    }
-
-    public void paintComponent(Graphics g) {
-        super.paintComponent(g); 
- 
-        for (int i = 0; i < bodies.size(); i++) {
-            CelestialBody b = bodies.get(i);
-            g.setColor(b.color);
-            int d = b.r * 2;
-            g.fillOval((int)(b.x - b.r), (int)(b.y - b.r), d, d);
+        metrics = new Metrics(sim, cfg.listType());
+        metrics.register();
+        if (!cfg.metricsCsv().isEmpty()) {
+            try {
+                metrics.startCsv(cfg.metricsCsv(), cfg.metricsInterval());
+            } catch (IOException e) {
+                System.err.println("Warning: cannot write metrics to " + cfg.metricsCsv() + ": " + e.getMessage());
+            }
         }
 
-        // IMPORTANT: tm.start() no started here. Started in constructor.
-    }
+        // The window exits with System.exit, so finish the trajectory log from a hook
+        if (!cfg.recordFile().isEmpty()) {
+            Runtime.getRuntime().addShutdownHook(new Thread(sim::stopRecording, "massive-motion-recorder-close"));
+        }
 
+        renderer = createRenderer(cfg.renderer());
+        camera = createCamera(this, cfg);
+
+        // Keep the simulation world the size of the panel, unless
+        // world_size_x/y fix it and the camera moves over it instead
+        if (!cfg.worldFixed()) {
+            addComponentListener(new ComponentAdapter() {
+                @Override
+                public void componentResized(ComponentEvent e) {
+                    sim.setBounds(getWidth(), getHeight());
+                    camera.setWorld(getWidth(), getHeight());
+                }
+            });
+        }
 
-    @Override
-    public void actionPerformed(ActionEvent actionEvent) {
-        int W = getWidth();
-        int H = getHeight();
+        System.out.printf("Loaded: %dx%d window, %dx%d world, %dms delay, using list=%s, gravity=%s, integrator=%s, threads=%d, renderer=%s, seed=%d%n",
+                width, height, cfg.worldW(), cfg.worldH(), delay, cfg.listType(), sim.gravityMode(), sim.integratorMode(), cfg.simThreads(), cfg.renderer(), sim.seed());
 
-        // moving all bodies
-        for (int i = 0; i < bodies.size(); i++) {
-            CelestialBody b = bodies.get(i);
-            b.x += b.vx;
-            b.y += b.vy;
+        if (cfg.simThread()) {
+            // Physics on its own fixed-rate thread; the timer only repaints
+            simThread = new SimThread(sim, cfg.simHz());
+            simThread.start();
+            tm = new Timer(1000 / cfg.paintHz(), this);
+            System.out.printf("Sim thread: %d ticks/s of %.4g timer ticks each, painting at %d Hz%n",
+                    cfg.simHz(), sim.timeStep(), cfg.paintHz());
+        } else {
+            tm = new Timer(delay, this);
         }
+        tm.start();
 
-        // Probabilistically spawning from top/bottom (gen_x) and left/right (gen_y)
-        maybeSpawn(true,  cfg.genX(), W, H); // top/bottom
-        maybeSpawn(false, cfg.genY(), W, H); // left/right
-
-        // Removing off-screen bodies (from end to start)
-        for (int i = bodies.size() - 1; i >= 0; i--) {
-            CelestialBody b = bodies.get(i);
-            if (isOffscreen(b, W, H)) {
-                bodies.remove(i);
+        // Live tuning: pick up edits to the properties file without a restart
+        if (cfg.configReload()) {
+            try {
+                Config.watch(propfile, this::reloaded);
+            } catch (IOException e) {
+                System.err.println("Warning: cannot watch " + propfile + " for changes: " + e.getMessage());
             }
         }
 
-        // Redraw
-        repaint();
     }
 
+    // Picks the renderer named by the renderer property ("graphics" | "raster")
+    static Renderer createRenderer(String type) {
+        if (type.equals("raster")) {
+            return new RendererImpl_Raster();
+        }
+        if (!type.equals("graphics")) {
+            System.err.println("Unknown renderer '" + type + "', using graphics.");
+        }
+        return new RendererImpl_Graphics();
+    }
 
-    // Helpers
-
-    // Checks if the entire circle is outside the screen.
-    private boolean isOffscreen(CelestialBody b, int W, int H) {
-        double left   = b.x - b.r;
-        double right  = b.x + b.r;
-        double top    = b.y - b.r;
-        double bottom = b.y + b.r;
-        return right < 0 || left > W || bottom < 0 || top > H;
+    // Makes the camera for a panel showing the configured world, framed to
+    // fit the window, and hooks it up to the panel's mouse and keys
+    static Camera createCamera(JComponent panel, Config cfg) {
+        Camera cam = new Camera(cfg.worldW(), cfg.worldH());
+        cam.fit(cfg.windowW(), cfg.windowH());
+        panel.addMouseListener(cam);
+        panel.addMouseMotionListener(cam);
+        panel.addMouseWheelListener(cam);
+        panel.addKeyListener(cam);
+        return cam;
     }
 
-    // Generates a non-zero random integer between -maxAbs and +maxAbs
-    private int nonZeroRandSpeed(int maxAbs) {
-        if (maxAbs <= 0) return 0;
-        int v = 0;
-        while (v == 0) {
-            v = rng.nextInt(maxAbs * 2 + 1) - maxAbs; // [-maxAbs, +maxAbs]
-        }
-        return v;
+    // Called on the watcher thread with a freshly parsed config
+    private void reloaded(Config next) {
+        sim.reconfigure(next);
+        SwingUtilities.invokeLater(() -> {
+            cfg = next;
+            if (simThread == null && tm.getDelay() != next.timerDelayMs()) {
+                tm.setDelay(next.timerDelayMs());
+                System.out.println("Timer delay now " + next.timerDelayMs() + "ms");
+            } else if (simThread != null) {
+                sim.setTimeStep(SimThread.timeStep(simThread.hz(), next.timerDelayMs()));
+            }
+        });
     }
 
-    // Probabilistically spawns one body on either the top/bottom (alongX=true) * or left/right (alongX=false) edge
-    private void maybeSpawn(boolean alongX, double prob, int W, int H) {
-        if (rng.nextDouble() >= prob) {
+    public void paintComponent(Graphics g) {
+        super.paintComponent(g); 
+
+        Frame f = sim.latestFrame();
+        if (f == null) {
             return;
         }
 
-        int r    = cfg.bodySize();
-        int vmax = cfg.bodyVelRange();
-        boolean fromMinSide = rng.nextBoolean(); // top/left if true, bottom/right if false
+        long start = System.nanoTime();
+        renderer.paint(g, f, camera, getWidth(), getHeight());
+        metrics.paintTimes().record(System.nanoTime() - start);
+
+        // IMPORTANT: tm.start() no started here. Started in constructor.
+    }
 
-        // Random position inside visible span (so the whole circle is on-screen)
-        double x, y;
-        int vx = nonZeroRandSpeed(vmax);
-        int vy = nonZeroRandSpeed(vmax);
 
-        if (alongX) {
-            // Spawn on top/bottom edge; push inward vertically
-            if (fromMinSide) {
-                y = r;          // top
-            } else {
-                y = H - r;      // bottom
+    @Override
+    public void actionPerformed(ActionEvent actionEvent) {
+        // Count timer periods that slipped by with no tick at all
+        long now = System.nanoTime();
+        long periodNs = tm.getDelay() * 1_000_000L;
+        if (lastTimerNs != 0 && periodNs > 0) {
+            long missed = (now - lastTimerNs) / periodNs - 1;
+            if (missed > 0) {
+                metrics.missedTimerTicks(missed);
             }
+        }
+        lastTimerNs = now;
 
-            x = r + rng.nextInt(Math.max(1, W - 2 * r));
+        // In timer mode every tick steps the simulation; otherwise the sim
+        // thread is already stepping and we only pick up its latest frame.
+        if (simThread == null) {
+            sim.step();
+            sim.publish();
+        }
 
-            vy = Math.abs(vy);
+        reportCaptures();
 
-            if (!fromMinSide) {
-                vy = -vy;       // from bottom: push upward
-            }
-        } else {
-            // Spawn on left/right edge; push inward horizontally
-            if (fromMinSide) {
-                x = r;          // left
-            } else {
-                x = W - r;      // right
-            }
-            y = r + rng.nextInt(Math.max(1, H - 2 * r));
+        // Redraw
+        repaint();
+    }
 
-            vx = Math.abs(vx);
-            if (!fromMinSide) {
-                vx = -vx;       // from right: push leftward
-            }
+    // Prints what the star absorbed over the last second, if anything
+    private void reportCaptures() {
+        long now = System.nanoTime();
+        if (now - reportNs < 1_000_000_000L) {
+            return;
         }
-
-        Color c;
-        if (alongX) {
-            c = Color.WHITE;
-        } else {
-            c = Color.CYAN;
+        long bodies = sim.capturedBodies();
+        double mass = sim.capturedMass();
+        if (bodies != reportedBodies) {
+            double secs = (now - reportNs) / 1e9;
+            System.out.printf("Star captured %.1f bodies/s, %.3g mass/s (%d bodies total)%n",
+                    (bodies - reportedBodies) / secs, (mass - reportedMass) / secs, bodies);
         }
-
-        bodies.add(bodies.size(), new CelestialBody(x, y, vx, vy, r, c));
+        reportNs = now;
+        reportedBodies = bodies;
+        reportedMass = mass;
     }
 
 
     public static void main(String[] args) {
         System.out.println("Massive Motion starting...");
         if (args.length == 0) {
-            System.err.println("Usage: java MassiveMotion <path-to-properties>");
+            System.err.println("Usage: java MassiveMotion <path-to-properties> [--headless [--ticks N] | --replay <file>]");
             System.exit(1);
         }
 
+        // Parsed once here and handed to whichever mode runs
+        Config cfg = new Config(args[0]);
+
+        // Batch runs never create a window, so they work on headless nodes
+        if (HeadlessRunner.requested(args, cfg)) {
+            HeadlessRunner.run(args, cfg);
+            return;
+        }
+
+        // Playing back a trajectory log never builds a Simulation
+        String replay = ReplayPlayer.requested(args, cfg);
+        if (replay != null) {
+            ReplayPlayer.show(cfg, replay);
+            return;
+        }
+
         SwingUtilities.invokeLater(() -> {
-            MassiveMotion mm = new MassiveMotion(args[0]);
+            MassiveMotion mm = new MassiveMotion(args[0], cfg);
 
             JFrame jf = new JFrame();
             jf.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -212,6 +261,7 @@ public class MassiveMotion extends JPanel implements ActionListener {
             jf.setSize(mm.cfg.windowW(), mm.cfg.windowH()); 
             jf.add(mm);
             jf.setVisible(true);
+            mm.requestFocusInWindow();
         } );
     
     }
@@ -0,0 +1,231 @@
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Instrumentation for one Simulation
+ * Tick times and the spawn/cull/capture/merge counters are kept by the
+ * Simulation itself; this class adds paint times and missed timer ticks
+ * from the window, and exports all of it as the MetricsMBean. With
+ * metrics_csv set it also appends one CSV line per metrics_interval
+ * seconds, with latencies for just that interval.
+ */
+public class Metrics implements MetricsMBean {
+
+    private static final String CSV_HEADER = "epoch_ms,live,ticks,tick_p50_us,tick_p99_us,tick_max_us,"
+            + "paints,paint_p50_us,paint_p99_us,paint_max_us,spawned,culled,captured,merged,"
+            + "frames_dropped,missed_timer_ticks,gc_count,gc_ms";
+
+    private final Simulation sim;
+    private final String listType;
+    private final LatencyHistogram paintTimes = new LatencyHistogram();
+    private volatile long missedTimerTicks;   // written by the Swing thread only
+
+    /**
+     * @param sim simulation to report on
+     * @param listType list property value, used to label the MBean
+     */
+    public Metrics(Simulation sim, String listType) {
+        this.sim = sim;
+        this.listType = listType;
+    }
+
+    /** @return histogram the window records paintComponent times into. */
+    public LatencyHistogram paintTimes() {
+        return paintTimes;
+    }
+
+    /**
+     * Adds timer_delay periods that went by without a timer tick. Call
+     * from the Swing thread only.
+     *
+     * @param n number of missed periods
+     */
+    public void missedTimerTicks(long n) {
+        missedTimerTicks += n;
+    }
+
+    /**
+     * Registers this object with the platform MBean server as
+     * MassiveMotion:type=Metrics,list=&lt;list type&gt;. Failures are
+     * reported and otherwise ignored.
+     */
+    public void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName("MassiveMotion:type=Metrics,list=" + ObjectName.quote(listType));
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(this, name);
+        } catch (JMException e) {
+            System.err.println("Warning: cannot register metrics MBean: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Starts a daemon thread that appends one line to the CSV file every
+     * intervalSec seconds. The header is written first if the file is new
+     * or empty.
+     *
+     * @param filename CSV file to append to
+     * @param intervalSec seconds between lines (at least 1)
+     * @return the started writer thread
+     * @throws IOException if the file cannot be opened
+     */
+    public Thread startCsv(String filename, int intervalSec) throws IOException {
+        boolean fresh = new File(filename).length() == 0;
+        PrintWriter out = new PrintWriter(new FileWriter(filename, true));
+        if (fresh) {
+            out.println(CSV_HEADER);
+            out.flush();
+        }
+        long periodMs = Math.max(1, intervalSec) * 1000L;
+
+        Thread t = new Thread(() -> {
+            LatencyHistogram lastTick = sim.tickTimes().copy();
+            LatencyHistogram lastPaint = paintTimes.copy();
+            try {
+                while (true) {
+                    Thread.sleep(periodMs);
+                    LatencyHistogram tick = sim.tickTimes().copy();
+                    LatencyHistogram paint = paintTimes.copy();
+                    LatencyHistogram dt = tick.since(lastTick);
+                    LatencyHistogram dp = paint.since(lastPaint);
+                    lastTick = tick;
+                    lastPaint = paint;
+                    out.printf("%d,%d,%d,%.1f,%.1f,%.1f,%d,%.1f,%.1f,%.1f,%d,%d,%d,%d,%d,%d,%d,%d%n",
+                            System.currentTimeMillis(), getLiveBodies(),
+                            dt.count(), micros(dt.percentile(50)), micros(dt.percentile(99)), micros(dt.max()),
+                            dp.count(), micros(dp.percentile(50)), micros(dp.percentile(99)), micros(dp.max()),
+                            getSpawned(), getCulled(), getCaptured(), getMerged(),
+                            getFramesDropped(), getMissedTimerTicks(), getGcCount(), getGcTimeMs());
+                    out.flush();
+                }
+            } catch (InterruptedException e) {
+                out.close();
+            }
+        }, "massive-motion-metrics");
+        t.setDaemon(true);
+        t.start();
+        return t;
+    }
+
+    private static double micros(double nanos) {
+        return nanos / 1000.0;
+    }
+
+    @Override
+    public String getListType() {
+        return listType;
+    }
+
+    @Override
+    public int getLiveBodies() {
+        return sim.bodyCount();
+    }
+
+    @Override
+    public long getTicks() {
+        return sim.tickTimes().count();
+    }
+
+    @Override
+    public double getTickMeanMicros() {
+        return micros(sim.tickTimes().mean());
+    }
+
+    @Override
+    public double getTickP50Micros() {
+        return micros(sim.tickTimes().percentile(50));
+    }
+
+    @Override
+    public double getTickP99Micros() {
+        return micros(sim.tickTimes().percentile(99));
+    }
+
+    @Override
+    public double getTickMaxMicros() {
+        return micros(sim.tickTimes().max());
+    }
+
+    @Override
+    public long getPaints() {
+        return paintTimes.count();
+    }
+
+    @Override
+    public double getPaintMeanMicros() {
+        return micros(paintTimes.mean());
+    }
+
+    @Override
+    public double getPaintP50Micros() {
+        return micros(paintTimes.percentile(50));
+    }
+
+    @Override
+    public double getPaintP99Micros() {
+        return micros(paintTimes.percentile(99));
+    }
+
+    @Override
+    public double getPaintMaxMicros() {
+        return micros(paintTimes.max());
+    }
+
+    @Override
+    public long getSpawned() {
+        return sim.spawnCount();
+    }
+
+    @Override
+    public long getCulled() {
+        return sim.cullCount();
+    }
+
+    @Override
+    public long getCaptured() {
+        return sim.capturedBodies();
+    }
+
+    @Override
+    public long getMerged() {
+        return sim.mergeCount();
+    }
+
+    @Override
+    public long getFramesDropped() {
+        return sim.framesDropped();
+    }
+
+    @Override
+    public long getMissedTimerTicks() {
+        return missedTimerTicks;
+    }
+
+    @Override
+    public long getGcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionCount());
+        }
+        return total;
+    }
+
+    @Override
+    public long getGcTimeMs() {
+        long total = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, gc.getCollectionTime());
+        }
+        return total;
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * JMX view of a running simulation, registered by Metrics.
+ * Latencies are in microseconds and cover the whole run; counters are
+ * totals since startup. Attributes can be read from any JMX client, for
+ * example jconsole, under MassiveMotion:type=Metrics.
+ */
+public interface MetricsMBean {
+
+    /** @return the list implementation in use (the list property). */
+    public String getListType();
+
+    /** @return bodies alive right now, star included. */
+    public int getLiveBodies();
+
+    /** @return ticks run so far. */
+    public long getTicks();
+
+    /** @return mean tick time in microseconds. */
+    public double getTickMeanMicros();
+
+    /** @return median tick time in microseconds. */
+    public double getTickP50Micros();
+
+    /** @return 99th percentile tick time in microseconds. */
+    public double getTickP99Micros();
+
+    /** @return longest tick time in microseconds. */
+    public double getTickMaxMicros();
+
+    /** @return frames painted so far. */
+    public long getPaints();
+
+    /** @return mean paintComponent time in microseconds. */
+    public double getPaintMeanMicros();
+
+    /** @return median paintComponent time in microseconds. */
+    public double getPaintP50Micros();
+
+    /** @return 99th percentile paintComponent time in microseconds. */
+    public double getPaintP99Micros();
+
+    /** @return longest paintComponent time in microseconds. */
+    public double getPaintMaxMicros();
+
+    /** @return bodies spawned so far. */
+    public long getSpawned();
+
+    /** @return bodies removed for leaving the world. */
+    public long getCulled();
+
+    /** @return bodies absorbed by the star. */
+    public long getCaptured();
+
+    /** @return bodies absorbed by collisions. */
+    public long getMerged();
+
+    /** @return published frames replaced before they were painted. */
+    public long getFramesDropped();
+
+    /** @return timer_delay periods that passed with no timer tick. */
+    public long getMissedTimerTicks();
+
+    /** @return garbage collections since JVM start, all collectors. */
+    public long getGcCount();
+
+    /** @return time spent in garbage collection since JVM start, in ms. */
+    public long getGcTimeMs();
+}
@@ -0,0 +1,133 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs the force and move part of a tick on a ForkJoinPool (sim_threads > 1)
+ * The bodies are split into index ranges. Forces are computed for every
+ * range first, then every range is integrated, so no task ever reads a
+ * position another task is writing. Each body goes through exactly the same
+ * arithmetic as in the single-threaded loop, so results do not depend on
+ * the thread count. Spawning and culling stay on the calling thread.
+ */
+public class ParallelStepper {
+
+    private static final int MIN_GRAIN = 1024;   // don't split below this many bodies
+
+    private final ForkJoinPool pool;
+    private final int threads;
+
+    // Current step, read by the tasks
+    private ForceEngine forces;
+    private double[] x, y, vx, vy, ax, ay;
+    private int grain;
+
+    /**
+     * @param threads number of worker threads (at least 1)
+     */
+    public ParallelStepper(int threads) {
+        this.threads = Math.max(1, threads);
+        this.pool = new ForkJoinPool(this.threads);
+    }
+
+    /**
+     * Applies one tick of gravity (if forces is not null) and moves every
+     * body by its velocity.
+     *
+     * @param forces force engine, or null to only move the bodies
+     * @param x positions, updated in place
+     * @param y positions, updated in place
+     * @param vx velocities, updated in place
+     * @param vy velocities, updated in place
+     * @param m masses
+     * @param n number of bodies
+     * @param ax scratch for x accelerations (length at least n)
+     * @param ay scratch for y accelerations (length at least n)
+     */
+    public void step(ForceEngine forces, double[] x, double[] y, double[] vx, double[] vy,
+                     double[] m, int n, double[] ax, double[] ay) {
+        this.forces = forces;
+        this.x = x;
+        this.y = y;
+        this.vx = vx;
+        this.vy = vy;
+        this.ax = ax;
+        this.ay = ay;
+        this.grain = Math.max(MIN_GRAIN, n / (threads * 4));
+
+        if (forces != null) {
+            forces.prepare(x, y, m, n);   // tree build stays serial
+            pool.invoke(new Chunk(0, n, true));
+        }
+        pool.invoke(new Chunk(0, n, false));
+
+        this.forces = null;
+        this.x = this.y = this.vx = this.vy = this.ax = this.ay = null;
+    }
+
+    /**
+     * Computes the acceleration of every body on the pool: prepare() on
+     * the calling thread, then accelerations() over split index ranges.
+     *
+     * @param forces force engine
+     * @param x body x positions
+     * @param y body y positions
+     * @param m body masses
+     * @param n number of bodies
+     * @param ax output x accelerations (length at least n)
+     * @param ay output y accelerations (length at least n)
+     */
+    public void accelerations(ForceEngine forces, double[] x, double[] y, double[] m, int n,
+                              double[] ax, double[] ay) {
+        this.forces = forces;
+        this.ax = ax;
+        this.ay = ay;
+        this.grain = Math.max(MIN_GRAIN, n / (threads * 4));
+
+        forces.prepare(x, y, m, n);
+        pool.invoke(new Chunk(0, n, true));
+
+        this.forces = null;
+        this.ax = this.ay = null;
+    }
+
+    /** Stops the worker threads. */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    // One index range; splits in half until it is small enough to run
+    private class Chunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final int lo, hi;
+        final boolean forcePhase;   // true: compute accelerations, false: integrate
+
+        Chunk(int lo, int hi, boolean forcePhase) {
+            this.lo = lo;
+            this.hi = hi;
+            this.forcePhase = forcePhase;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo > grain) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new Chunk(lo, mid, forcePhase), new Chunk(mid, hi, forcePhase));
+                return;
+            }
+            if (forcePhase) {
+                forces.accelerations(lo, hi, ax, ay);
+                return;
+            }
+            boolean accel = forces != null;
+            for (int i = lo; i < hi; i++) {
+                if (accel) {
+                    vx[i] += ax[i];
+                    vy[i] += ay[i];
+                }
+                x[i] += vx[i];
+                y[i] += vy[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+import java.awt.Graphics;
+
+/**
+ * Draws a published Frame onto the panel.
+ * Called on the Swing event thread only, so implementations may keep
+ * reusable drawing state between calls without locking.
+ *
+ * Bodies are placed through a Camera, so the panel can show any part of a
+ * world larger than itself. Implementations skip bodies that land outside
+ * the panel before doing any drawing work for them, and draw a body that
+ * covers less than a pixel on screen as a single pixel rather than as an
+ * oval, so a zoomed-out view of a huge frame costs one pass over the
+ * bodies and at most one write per pixel.
+ */
+public interface Renderer {
+
+    /**
+     * Draws every body in the frame that the camera puts inside the w x h
+     * area, filling the rest of it with the background.
+     *
+     * @param g graphics of the panel being painted
+     * @param f frame to draw
+     * @param cam view to draw the frame through
+     * @param w panel width
+     * @param h panel height
+     */
+    public void paint(Graphics g, Frame f, Camera cam, int w, int h);
+}
@@ -0,0 +1,80 @@
+import java.awt.Color;
+import java.awt.Graphics;
+import java.util.Arrays;
+
+/**
+ * Graphics based implementation of Renderer (renderer=graphics)
+ * One setColor and fillOval call per body, the way MassiveMotion has
+ * always drawn. Kept as the reference to compare the raster path against.
+ *
+ * Bodies outside the panel are skipped, and a body smaller than a pixel on
+ * screen is one fillRect, made only for the first body to land on that
+ * pixel in the frame, so a zoomed-out view costs at most one call per
+ * pixel however many bodies share it.
+ */
+public class RendererImpl_Graphics implements Renderer {
+
+    // One bit per panel pixel: set once a sub-pixel body has been drawn there
+    private long[] drawn = new long[0];
+
+    /**
+     * Draws each visible body with Graphics.fillOval in frame order.
+     *
+     * @param g graphics of the panel being painted
+     * @param f frame to draw
+     * @param cam view to draw the frame through
+     * @param w panel width
+     * @param h panel height
+     */
+    @Override
+    public void paint(Graphics g, Frame f, Camera cam, int w, int h) {
+        g.setColor(Color.BLACK);
+        g.fillRect(0, 0, w, h);
+        if (w <= 0 || h <= 0) {
+            return;
+        }
+        int words = (int) (((long) w * h + 63) >>> 6);
+        if (drawn.length < words) {
+            drawn = new long[words];
+        } else {
+            Arrays.fill(drawn, 0, words, 0L);
+        }
+
+        double left = cam.left();
+        double top = cam.top();
+        double scale = cam.scale();
+        int last = -1;   // palette index currently set on g
+        for (int i = 0; i < f.count; i++) {
+            double sr = f.r[i] * scale;
+            double sx = (f.x[i] - left) * scale;
+            double sy = (f.y[i] - top) * scale;
+            if (sx + sr < 0 || sy + sr < 0 || sx - sr >= w || sy - sr >= h) {
+                continue;   // off screen
+            }
+            if (sr < 1) {
+                int px = (int) sx;
+                int py = (int) sy;
+                if (sx < 0 || sy < 0 || px >= w || py >= h) {
+                    continue;
+                }
+                int p = py * w + px;
+                if ((drawn[p >>> 6] & (1L << p)) != 0) {
+                    continue;   // pixel already lit this frame
+                }
+                drawn[p >>> 6] |= 1L << p;
+                if (f.color[i] != last) {
+                    last = f.color[i];
+                    g.setColor(MassiveMotion.PALETTE[last]);
+                }
+                g.fillRect(px, py, 1, 1);
+            } else {
+                if (f.color[i] != last) {
+                    last = f.color[i];
+                    g.setColor(MassiveMotion.PALETTE[last]);
+                }
+                int r = (int) sr;
+                g.fillOval((int)(sx - r), (int)(sy - r), r * 2, r * 2);
+            }
+        }
+    }
+}
@@ -0,0 +1,171 @@
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.Arrays;
+
+/**
+ * Raster implementation of Renderer (renderer=raster)
+ * Writes bodies straight into the int[] pixels of a TYPE_INT_RGB
+ * BufferedImage that is kept from frame to frame, then blits the whole
+ * image with a single drawImage. Each radius gets a disc mask, computed
+ * once, that stores the horizontal span to fill on every row, so drawing a
+ * body is a few Arrays.fill calls. The palette is turned into RGB ints up
+ * front, so there is no per-body color state at all.
+ *
+ * Discs fill the same 2r x 2r box as Graphics.fillOval, but are exactly
+ * symmetric, so an edge pixel here and there differs from the Java2D shape.
+ *
+ * Bodies outside the panel are skipped. A body smaller than a pixel on
+ * screen is splatted instead: it adds one to a per-pixel count, and after
+ * all bodies are in, each touched pixel that no disc covered gets the
+ * color of its last body at a brightness that grows with the log of the
+ * count. Zoomed out, a frame then costs one increment per body and one
+ * write per lit pixel, and dense regions show up brighter rather than
+ * saturating into a flat blob.
+ */
+public class RendererImpl_Raster implements Renderer {
+
+    private static final int BACKGROUND = 0x000000;
+
+    // Splat brightness: one body per pixel is drawn at DIM, SATURATE or more
+    // at full color, log scaled in between
+    private static final int SATURATE = 64;
+    private static final double DIM = 0.45;
+
+    private final int[] rgb;   // palette index -> 0xRRGGBB
+    private final int[][] shades;   // [palette index][min(count, SATURATE)] -> 0xRRGGBB
+
+    private BufferedImage image;
+    private int[] pixels;
+    private int width, height;
+
+    // Splat state, sized with the image: counts and last color per pixel,
+    // and the pixels touched this frame in touch order
+    private int[] counts;
+    private byte[] splatColor;
+    private int[] touched;
+
+    // masks[r][2*row] / masks[r][2*row + 1]: first and last+1 column of row
+    // in a disc of radius r, relative to the left edge of its 2r box
+    private int[][] masks = new int[0][];
+
+    // Turns the palette into packed RGB ints, and splat shades of it, once
+    public RendererImpl_Raster() {
+        rgb = new int[MassiveMotion.PALETTE.length];
+        shades = new int[rgb.length][SATURATE + 1];
+        for (int i = 0; i < rgb.length; i++) {
+            rgb[i] = MassiveMotion.PALETTE[i].getRGB() & 0xFFFFFF;
+            for (int c = 1; c <= SATURATE; c++) {
+                double k = DIM + (1 - DIM) * Math.log(c) / Math.log(SATURATE);
+                int red = (int) Math.round((rgb[i] >> 16 & 0xFF) * k);
+                int green = (int) Math.round((rgb[i] >> 8 & 0xFF) * k);
+                int blue = (int) Math.round((rgb[i] & 0xFF) * k);
+                shades[i][c] = red << 16 | green << 8 | blue;
+            }
+        }
+    }
+
+    /**
+     * Clears the reusable image, rasterizes every visible body into it and
+     * draws it onto the panel in one call.
+     *
+     * @param g graphics of the panel being painted
+     * @param f frame to draw
+     * @param cam view to draw the frame through
+     * @param w panel width
+     * @param h panel height
+     */
+    @Override
+    public void paint(Graphics g, Frame f, Camera cam, int w, int h) {
+        if (w <= 0 || h <= 0) {
+            return;
+        }
+        if (image == null || w != width || h != height) {
+            image = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+            pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            width = w;
+            height = h;
+            counts = new int[w * h];
+            splatColor = new byte[w * h];
+            touched = new int[w * h];
+        }
+        Arrays.fill(pixels, BACKGROUND);
+
+        double left = cam.left();
+        double top = cam.top();
+        double scale = cam.scale();
+        int splats = 0;   // pixels in touched
+        for (int i = 0; i < f.count; i++) {
+            double sr = f.r[i] * scale;
+            double sx = (f.x[i] - left) * scale;
+            double sy = (f.y[i] - top) * scale;
+            if (sx + sr < 0 || sy + sr < 0 || sx - sr >= w || sy - sr >= h) {
+                continue;   // off screen
+            }
+            if (sr < 1) {
+                if (sx >= 0 && sy >= 0 && sx < w && sy < h) {
+                    int p = (int) sy * w + (int) sx;
+                    if (counts[p]++ == 0) {
+                        touched[splats++] = p;
+                    }
+                    splatColor[p] = f.color[i];
+                }
+            } else {
+                int r = (int) sr;
+                disc((int)(sx - r), (int)(sy - r), r, rgb[f.color[i]]);
+            }
+        }
+
+        // Resolve splats under anything a disc already drew, and reset the
+        // counts for the next frame
+        for (int k = 0; k < splats; k++) {
+            int p = touched[k];
+            if (pixels[p] == BACKGROUND) {
+                pixels[p] = shades[splatColor[p]][Math.min(counts[p], SATURATE)];
+            }
+            counts[p] = 0;
+        }
+        g.drawImage(image, 0, 0, null);
+    }
+
+    // Fills the disc of radius r whose 2r x 2r box starts at (left, top),
+    // clipped to the image
+    private void disc(int left, int top, int r, int color) {
+        int d = 2 * r;
+        if (left >= width || top >= height || left + d <= 0 || top + d <= 0) {
+            return;
+        }
+        int[] mask = mask(r);
+        int row0 = Math.max(0, -top);
+        int row1 = Math.min(d, height - top);
+        for (int row = row0; row < row1; row++) {
+            int from = Math.max(0, left + mask[2 * row]);
+            int to = Math.min(width, left + mask[2 * row + 1]);
+            if (from < to) {
+                int base = (top + row) * width;
+                Arrays.fill(pixels, base + from, base + to, color);
+            }
+        }
+    }
+
+    // Returns the span mask for radius r, building it on first use. A pixel
+    // is inside when its center is inside the circle.
+    private int[] mask(int r) {
+        if (r >= masks.length) {
+            masks = Arrays.copyOf(masks, Math.max(r + 1, masks.length * 2));
+        }
+        int[] mask = masks[r];
+        if (mask == null) {
+            int d = 2 * r;
+            mask = new int[2 * d];
+            for (int row = 0; row < d; row++) {
+                double dy = row + 0.5 - r;
+                double half = Math.sqrt(Math.max(0.0, (double) r * r - dy * dy));
+                mask[2 * row] = (int) Math.ceil(r - half - 0.5);
+                mask[2 * row + 1] = (int) Math.floor(r + half - 0.5) + 1;
+            }
+            masks[r] = mask;
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,254 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.io.IOException;
+
+/**
+ * Window that plays a trajectory log back instead of simulating
+ * (--replay file, or replay_file in the properties)
+ * The log is memory-mapped, and on every timer tick the reader seeks to
+ * the playback position: ahead by a few records during normal play, or
+ * straight into the one block that holds the target after a jump. The
+ * bodies of that record are moved along their recorded velocity to the
+ * exact playback tick and handed to the same Renderer the live window
+ * uses, so no Simulation is ever built and a frame costs a decode and a
+ * paint.
+ *
+ * At speed 1 playback runs at the tick rate the log was recorded at (or
+ * 1000 / timer_delay ticks per second for logs that do not store it), and
+ * frames are painted at paint_hz. Keys: space pauses, left and right jump
+ * 5% of the recording, home and end go to either end, up and down double
+ * or halve the speed. Clicking seeks to that fraction of
+ * the recording. Dragging, the wheel and + - F 1 move the Camera, as in the
+ * live window.
+ */
+public class ReplayPlayer extends JPanel implements ActionListener {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final double MIN_SPEED = 1.0 / 64;
+    private static final double MAX_SPEED = 4096;
+
+    private final TrajectoryReader reader;
+    private final Renderer renderer;
+    private final Camera camera;
+    private final Timer tm;
+    private final Frame frame = new Frame();   // bodies at the playback tick
+
+    private final long first, last;   // ticks of the first and last record
+    private final double ticksPerSec;  // playback rate at speed 1
+
+    private double position;   // playback tick, fractional between records
+    private double speed;
+    private boolean paused;
+    private long lastNs;       // when the previous timer tick arrived
+    private long paintNs;      // how long the last paint took
+
+    /**
+     * Opens the log and starts playing it from the first record.
+     *
+     * @param cfg window and world size, renderer, timer_delay, paint_hz and replay_speed
+     * @param filename trajectory log to play
+     * @throws IOException if the log cannot be read or has no records
+     */
+    public ReplayPlayer(Config cfg, String filename) throws IOException {
+        reader = new TrajectoryReader(filename, true);
+        if (!reader.seek(Long.MAX_VALUE)) {
+            reader.close();
+            throw new IOException("No records in " + filename);
+        }
+        last = reader.tick();
+        reader.seek(Long.MIN_VALUE);
+        first = reader.tick();
+
+        position = first;
+        speed = Math.min(MAX_SPEED, cfg.replaySpeed());
+        ticksPerSec = reader.tickMicros() > 0 ? 1e6 / reader.tickMicros() : 1000.0 / cfg.timerDelayMs();
+        renderer = MassiveMotion.createRenderer(cfg.renderer());
+        camera = MassiveMotion.createCamera(this, cfg);
+        load();
+
+        setPreferredSize(new Dimension(cfg.windowW(), cfg.windowH()));
+        setBackground(Color.BLACK);
+        setDoubleBuffered(true);
+        setFocusable(true);
+        addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                key(e.getKeyCode());
+            }
+        });
+        // A click without a drag seeks; a drag pans the camera instead
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (getWidth() > 0) {
+                    seek(first + (double) (last - first) * e.getX() / getWidth());
+                }
+            }
+        });
+
+        System.out.printf("Replay: %s, ticks %d..%d recorded every %d, %d blocks, renderer=%s, speed %.3gx%n",
+                filename, first, last, reader.every(), reader.blocks(), cfg.renderer(), speed);
+
+        lastNs = System.nanoTime();
+        tm = new Timer(1000 / cfg.paintHz(), this);
+        tm.start();
+    }
+
+    /** @return the playback position in ticks. */
+    public double position() {
+        return position;
+    }
+
+    /** @return the frame drawn by the last paint. */
+    public Frame frame() {
+        return frame;
+    }
+
+    @Override
+    public void paintComponent(Graphics g) {
+        super.paintComponent(g);
+
+        long start = System.nanoTime();
+        renderer.paint(g, frame, camera, getWidth(), getHeight());
+        paintNs = System.nanoTime() - start;
+
+        g.setColor(Color.GRAY);
+        g.drawString(String.format("tick %d / %d   %.3gx%s   %d bodies   zoom %.3g   paint %.1f ms",
+                (long) position, last, speed, paused ? "   paused" : "", frame.count, camera.scale(), paintNs / 1e6), 8, 16);
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent actionEvent) {
+        long now = System.nanoTime();
+        if (!paused) {
+            position += (now - lastNs) / 1e9 * ticksPerSec * speed;
+            if (position >= last) {
+                position = last;
+                paused = true;
+            }
+        }
+        lastNs = now;
+        load();
+        repaint();
+    }
+
+    // Handles a key press on the panel
+    private void key(int code) {
+        double jump = Math.max(1, (last - first) / 20.0);
+        if (code == KeyEvent.VK_SPACE) {
+            paused = !paused;
+            if (!paused && position >= last) {
+                position = first;   // play again from the start
+            }
+        } else if (code == KeyEvent.VK_RIGHT) {
+            seek(position + jump);
+        } else if (code == KeyEvent.VK_LEFT) {
+            seek(position - jump);
+        } else if (code == KeyEvent.VK_HOME) {
+            seek(first);
+        } else if (code == KeyEvent.VK_END) {
+            seek(last);
+        } else if (code == KeyEvent.VK_UP) {
+            speed = Math.min(MAX_SPEED, speed * 2);
+        } else if (code == KeyEvent.VK_DOWN) {
+            speed = Math.max(MIN_SPEED, speed / 2);
+        } else {
+            return;
+        }
+        repaint();
+    }
+
+    /**
+     * Moves playback to the given tick, clamped to the recording.
+     *
+     * @param tick tick to show next
+     */
+    public void seek(double tick) {
+        position = Math.max(first, Math.min(last, tick));
+        load();
+        repaint();
+    }
+
+    // Fills frame with the bodies at the playback position: the last record
+    // at or before it, moved along each body's velocity for the remainder
+    private void load() {
+        try {
+            reader.seek((long) Math.floor(position));
+        } catch (IOException e) {
+            System.err.println("Error: replay stopped: " + e.getMessage());
+            paused = true;
+            return;
+        }
+        double dt = Math.max(0, position - reader.tick());
+        int n = reader.count();
+        frame.ensureCapacity(n);
+        for (int i = 0; i < n; i++) {
+            frame.x[i] = reader.x(i) + reader.vx(i) * dt;
+            frame.y[i] = reader.y(i) + reader.vy(i) * dt;
+            frame.r[i] = reader.r(i);
+            frame.color[i] = reader.color(i);
+        }
+        frame.count = n;
+        frame.tick = (long) position;
+    }
+
+    /**
+     * Returns the trajectory log to play if the command line (--replay
+     * file) or the properties file (replay_file) names one.
+     *
+     * @param args command line arguments, properties file first
+     * @param cfg the already loaded properties file
+     * @return the log to play, or null for a live run
+     */
+    public static String requested(String[] args, Config cfg) {
+        for (int i = 1; i < args.length - 1; i++) {
+            if (args[i].equals("--replay")) {
+                return args[i + 1];
+            }
+        }
+        String file = cfg.replayFile();
+        return file.isEmpty() ? null : file;
+    }
+
+    /**
+     * Opens a window playing the given log on the Swing thread.
+     *
+     * @param cfg loaded properties file with the window and playback settings
+     * @param filename trajectory log to play
+     */
+    public static void show(Config cfg, String filename) {
+        SwingUtilities.invokeLater(() -> {
+            ReplayPlayer player;
+            try {
+                player = new ReplayPlayer(cfg, filename);
+            } catch (IOException e) {
+                System.err.println("Error: cannot replay " + filename + ": " + e.getMessage());
+                System.exit(1);
+                return;
+            }
+
+            JFrame jf = new JFrame();
+            jf.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+            jf.setTitle("Massive Motion - replay " + filename);
+            jf.setSize(cfg.windowW(), cfg.windowH());
+            jf.add(player);
+            jf.setVisible(true);
+            player.requestFocusInWindow();
+        });
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: java ReplayPlayer <path-to-properties> <trajectory-file>");
+            System.exit(1);
+        }
+        show(new Config(args[0]), args[1]);
+    }
+}
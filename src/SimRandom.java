@@ -0,0 +1,55 @@
+import java.util.Random;
+
+/**
+ * java.util.Random with a readable and settable state
+ * Runs the same 48-bit linear congruential generator as java.util.Random,
+ * so new SimRandom(s) returns exactly the numbers new Random(s) would, but
+ * the generator state can be saved in a snapshot and put back later.
+ * Unlike Random it is not thread-safe, which is fine for the one stepping
+ * thread. nextGaussian() caches a second value outside that state; the
+ * simulation never calls it.
+ */
+public class SimRandom extends Random {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long MASK = (1L << 48) - 1;
+
+    // No initializer: Random's constructor sets it through setSeed()
+    private long state;
+
+    /**
+     * @param seed initial seed, as for new Random(seed)
+     */
+    public SimRandom(long seed) {
+        super(seed);
+    }
+
+    @Override
+    public synchronized void setSeed(long seed) {
+        super.setSeed(seed);
+        state = (seed ^ MULTIPLIER) & MASK;
+    }
+
+    @Override
+    protected int next(int bits) {
+        state = (state * MULTIPLIER + ADDEND) & MASK;
+        return (int) (state >>> (48 - bits));
+    }
+
+    /** @return the current 48-bit generator state. */
+    public long state() {
+        return state;
+    }
+
+    /**
+     * Restores a state previously returned by state().
+     *
+     * @param s generator state
+     */
+    public void setState(long s) {
+        state = s & MASK;
+    }
+}
@@ -0,0 +1,79 @@
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Dedicated thread stepping a Simulation at a fixed rate (sim_thread=true)
+ * Every tick is the same length of simulated time; the loop sleeps until
+ * the next tick is due, or runs back-to-back ticks to catch up if it fell
+ * behind. A frame is only published when the painter has taken the last
+ * one, so a 1 kHz simulation does not copy bodies 1000 times a second for
+ * a 60 Hz display.
+ *
+ * Velocities, gravity and spawn chances are all per timer tick, so the
+ * Simulation must be given timeStep(hz, timer_delay) as its step length.
+ * The world then moves at the same speed in wall time as in timer mode
+ * whatever sim_hz is; sim_hz only sets how finely that time is cut.
+ */
+public class SimThread extends Thread {
+
+    private static final long MAX_LAG_NS = 250_000_000L;   // drop the backlog past this
+
+    private final Simulation sim;
+    private final int hz;
+    private final long periodNs;
+    private volatile boolean running = true;
+
+    /**
+     * Simulated time one tick at hz covers, in timer ticks of timerDelayMs:
+     * the period of hz divided by the timer delay.
+     *
+     * @param hz ticks per second
+     * @param timerDelayMs timer_delay the world's speeds are measured against
+     * @return step length to give the Simulation
+     */
+    public static double timeStep(int hz, int timerDelayMs) {
+        return (1_000_000_000L / Math.max(1, hz)) / (Math.max(1, timerDelayMs) * 1e6);
+    }
+
+    /**
+     * @param sim simulation to drive; only this thread may step it afterwards
+     * @param hz ticks per second
+     */
+    public SimThread(Simulation sim, int hz) {
+        super("massive-motion-sim");
+        setDaemon(true);
+        this.sim = sim;
+        this.hz = Math.max(1, hz);
+        this.periodNs = 1_000_000_000L / Math.max(1, hz);
+    }
+
+    @Override
+    public void run() {
+        sim.publish();
+        long next = System.nanoTime();
+        while (running) {
+            sim.step();
+            if (sim.frameWanted()) {
+                sim.publish();
+            }
+
+            next += periodNs;
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            } else if (-wait > MAX_LAG_NS) {
+                next = System.nanoTime();   // too far behind: stop trying to catch up
+            }
+        }
+        sim.shutdown();
+    }
+
+    /** @return ticks per second this thread runs at. */
+    public int hz() {
+        return hz;
+    }
+
+    /** Asks the loop to stop after the current tick. */
+    public void shutdown() {
+        running = false;
+    }
+}
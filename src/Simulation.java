@@ -0,0 +1,1092 @@
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/**
+ * The body population and everything that happens to it in one tick
+ * Moved out of MassiveMotion so the same tick can be driven by the Swing
+ * Timer or by a dedicated SimThread. Drawing goes through published Frames
+ * only, so the painter never touches the live bodies.
+ */
+public class Simulation {
+
+    private static class CelestialBody {
+        long id;          // unique per body for the whole run, star = 0
+        double x, y;      // center position
+        double vx, vy;    // velocity per tick
+        int r;            // radius
+        double m;         // mass
+        byte color;       // color index, see MassiveMotion.PALETTE
+        boolean dead;     // absorbed in a collision, removed by the next cull
+
+        CelestialBody(long id, double x, double y, double vx, double vy, int r, double m, byte c) {
+            reset(id, x, y, vx, vy, r, m, c);
+        }
+
+        // Overwrites every field, so a pooled body comes back as new
+        void reset(long id, double x, double y, double vx, double vy, int r, double m, byte c) {
+            this.id = id;
+            this.x = x;
+            this.y = y;
+            this.vx = vx;
+            this.vy = vy;
+            this.r = r;
+            this.m = m;
+            this.color = c;
+            this.dead = false;
+        }
+    }
+
+    // Culled bodies waiting to be respawned, used as a stack
+    private CelestialBody[] bodyPool;
+    private int pooledBodies;
+    private long poolHits, poolMisses;
+
+    // Reused culling filter, so removeIf does not need a new lambda per tick
+    private int cullW, cullH;
+    private boolean capturing;
+    private final Predicate<CelestialBody> culler = this::cull;
+
+    // The star, always at index 0 while it is on-screen; null once culled
+    // (and always null when list=soa, which keeps it at store index 0)
+    private CelestialBody star;
+
+    // Bodies the star has absorbed; written by the stepping thread only
+    private volatile long capturedBodies;
+    private volatile double capturedMass;
+
+    // Instrumentation, read by Metrics; written by the stepping thread only
+    private final LatencyHistogram tickTimes = new LatencyHistogram();
+    private volatile long spawned, culled;
+
+    private List<CelestialBody> bodies;   // null when list=soa
+    private BodyStore store;              // only used when list=soa
+    private final SimRandom rng;
+    private final long seed;
+
+    // Gravity; forces is null when gravity=none
+    private ForceEngine forces;
+    private String gravityMode = "none";
+    private double[] gx = new double[0], gy = new double[0], gm = new double[0];   // list path gather
+    private double[] gvx = new double[0], gvy = new double[0];
+    private double[] ax = new double[0], ay = new double[0];                       // accelerations
+
+    // Integration. Euler with a single substep keeps the original per-store
+    // loops; everything else goes through integrate().
+    private Integrator integrator;
+    private String integratorMode = "euler";
+    private final Integrator.Field field = this::accelerations;
+    private int substeps = 1;          // substeps for the next tick (adaptive_dt)
+    private double maxAccel2;          // largest |a|^2 seen this tick
+    private long substepTotal;
+    private int substepMax;
+
+    // Energy drift of the integration phase, sampled every energy_every ticks
+    private long energySamples;
+    private double energyDriftSum, energyDriftMax;
+
+    // Merging of touching bodies; null when collisions=false
+    private CollisionGrid grid;
+    private double[] gr = new double[0];                                           // list path radii
+    private boolean[] gdead = new boolean[0];                                      // absorbed flags
+    private volatile long merges;
+
+    // Parallel force/move step; null when sim_threads=1
+    private ParallelStepper stepper;
+
+    // World bounds; written by the UI thread on resize (unless world_size_x/y
+    // fix them), read by step()
+    private volatile int worldW, worldH;
+
+    // Simulated time per step(), in timer ticks (the unit of every velocity,
+    // acceleration and spawn chance). 1 except on a sim thread, whose steps
+    // are shorter or longer than a timer tick; see SimThread.timeStep
+    private volatile double timeStep;
+
+    private long tick;
+    private long nextId;   // id for the next body created
+    private TrajectoryRecorder recorder;   // null unless record_file is set
+    private final FrameBuffer frames = new FrameBuffer();
+
+    // Holds all configuration values read from the properties file.
+    // Only the stepping thread touches cfg; reconfigure() hands a new one
+    // over through nextCfg, and step() switches at the start of a tick.
+    private Config cfg;
+    private volatile Config nextCfg;
+
+
+    /**
+     * Builds the body container, force engine and star described by cfg,
+     * stepping one timer tick of simulated time per step().
+     *
+     * @param cfg loaded configuration
+     */
+    public Simulation(Config cfg) {
+        this(cfg, 1);
+    }
+
+    /**
+     * Builds the body container, force engine and star described by cfg.
+     *
+     * @param cfg loaded configuration
+     * @param timeStep simulated time per step(), in timer ticks
+     */
+    public Simulation(Config cfg, double timeStep) {
+        this.cfg = cfg;
+        this.timeStep = timeStep;
+        this.nextCfg = cfg;
+        this.worldW = cfg.worldW();
+        this.worldH = cfg.worldH();
+        this.seed = cfg.seed();
+        this.rng = new SimRandom(seed);
+
+        String listType = cfg.listType(); // "arraylist" | "single" | "double" | "dummyhead" | "unrolled" | "ring" | "soa"
+
+        if (listType.equals("arraylist")) {
+            bodies = new ListImpl_ArrayList<>(cfg.initialCapacity());
+        } else if (listType.equals("single")) {
+            bodies = new ListImpl_Linked<>(cfg.nodePool());
+        } else if (listType.equals("double")) {
+            bodies = new ListImpl_Double<>(cfg.nodePool());
+        } else if (listType.equals("dummyhead")) {
+            bodies = new ListImpl_DummyHead<>(cfg.nodePool());
+        } else if (listType.equals("unrolled")) {
+            bodies = new ListImpl_Unrolled<>(cfg.unrolledBlock());
+        } else if (listType.equals("ring")) {
+            bodies = new ListImpl_Ring<>();
+        } else if (listType.equals("soa")) {
+            store = new BodyStore(cfg.initialCapacity());
+        } else {
+            System.err.println("Unknown list type '" + listType + "', defaulting to ArrayList_ListImpl.");
+            bodies = new ListImpl_ArrayList<>(cfg.initialCapacity());
+        }
+
+        buildForces(cfg);
+        buildIntegrator(cfg);
+        buildCollisions(cfg);
+
+        bodyPool = new CelestialBody[cfg.bodyPool()];
+
+        if (cfg.simThreads() > 1) {
+            stepper = new ParallelStepper(cfg.simThreads());
+        }
+
+        // Seeding the red star from config
+        double sx  = cfg.starX();      // star_position_x
+        double sy  = cfg.starY();      // star_position_y
+        int    sr  = cfg.starSize();   // star_size
+        double sm  = cfg.starMass();   // star_mass
+        double svx = cfg.starVx();     // star_velocity_x
+        double svy = cfg.starVy();     // star_velocity_y
+        if (store != null) {
+            store.add(nextId++, sx, sy, svx, svy, sr, sm, BodyStore.STAR);
+        } else {
+            star = obtainBody(nextId++, sx, sy, svx, svy, sr, sm, BodyStore.STAR);
+            bodies.add(0, star);
+        }
+
+        if (!cfg.recordFile().isEmpty()) {
+            try {
+                int tickMicros = (int) Math.round(cfg.timerDelayMs() * 1000 * timeStep);
+                recorder = new TrajectoryRecorder(cfg.recordFile(), cfg.recordEvery(), tickMicros);
+            } catch (IOException e) {
+                System.err.println("Warning: cannot record trajectories to " + cfg.recordFile() + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Sets the world bounds used for spawning and culling. Safe to call from
+     * any thread; takes effect at the next tick.
+     *
+     * @param w world width
+     * @param h world height
+     */
+    public void setBounds(int w, int h) {
+        worldW = w;
+        worldH = h;
+    }
+
+    /**
+     * Sets how much simulated time each step() covers, in timer ticks. Safe
+     * to call from any thread; takes effect at the next tick.
+     *
+     * @param dt simulated time per step
+     */
+    public void setTimeStep(double dt) {
+        timeStep = dt;
+    }
+
+    /** @return simulated time per step(), in timer ticks. */
+    public double timeStep() {
+        return timeStep;
+    }
+
+    /**
+     * Swaps in a new configuration at the next tick boundary. Spawn rates,
+     * body size/velocity/mass and the gravity settings take effect live;
+     * the list type, world, star and threading settings keep their
+     * startup values. Safe to call from any thread.
+     *
+     * @param next newly loaded configuration
+     */
+    public void reconfigure(Config next) {
+        nextCfg = next;
+    }
+
+    /** @return the seed the random number generator started from. */
+    public long seed() {
+        return seed;
+    }
+
+    /**
+     * Copies the full simulation state (bodies, star, RNG state, tick, next
+     * body id and world size) into a Snapshot. Must be called from the thread that
+     * calls step().
+     *
+     * @return the current state
+     */
+    public Snapshot snapshot() {
+        int n = bodyCount();
+        Snapshot s = new Snapshot(n);
+        if (store != null) {
+            System.arraycopy(store.id, 0, s.id, 0, n);
+            System.arraycopy(store.x, 0, s.x, 0, n);
+            System.arraycopy(store.y, 0, s.y, 0, n);
+            System.arraycopy(store.vx, 0, s.vx, 0, n);
+            System.arraycopy(store.vy, 0, s.vy, 0, n);
+            System.arraycopy(store.r, 0, s.r, 0, n);
+            System.arraycopy(store.m, 0, s.m, 0, n);
+            System.arraycopy(store.color, 0, s.color, 0, n);
+        } else {
+            int i = 0;
+            for (CelestialBody b : bodies) {
+                s.id[i] = b.id;
+                s.x[i] = b.x;
+                s.y[i] = b.y;
+                s.vx[i] = b.vx;
+                s.vy[i] = b.vy;
+                s.r[i] = b.r;
+                s.m[i] = b.m;
+                s.color[i] = b.color;
+                i++;
+            }
+        }
+        s.tick = tick;
+        s.nextId = nextId;
+        s.substeps = substeps;
+        s.rngState = rng.state();
+        s.worldW = worldW;
+        s.worldH = worldH;
+        return s;
+    }
+
+    /**
+     * Replaces the whole simulation state with a snapshot, so the following
+     * ticks repeat the ones that followed the original. Must be called from
+     * the thread that calls step().
+     *
+     * @param s state to restore
+     */
+    public void restore(Snapshot s) {
+        int n = s.count;
+        if (store != null) {
+            store.clear();
+            for (int i = 0; i < n; i++) {
+                store.add(s.id[i], s.x[i], s.y[i], s.vx[i], s.vy[i], s.r[i], s.m[i], s.color[i]);
+            }
+        } else {
+            bodies.removeIf(b -> true);
+            // The clear shrank the array back down; make room for the whole
+            // snapshot at once rather than doubling up to it
+            if (bodies instanceof ListImpl_ArrayList) {
+                ((ListImpl_ArrayList<CelestialBody>) bodies).ensureCapacity(n);
+            }
+            for (int i = 0; i < n; i++) {
+                bodies.add(obtainBody(s.id[i], s.x[i], s.y[i], s.vx[i], s.vy[i], (int) s.r[i], s.m[i], s.color[i]));
+            }
+        }
+        // the star, while it lives, is always body 0
+        star = (store == null && n > 0 && s.color[0] == BodyStore.STAR) ? bodies.get(0) : null;
+        tick = s.tick;
+        nextId = s.nextId;
+        substeps = cfg.adaptiveDt() ? s.substeps : 1;
+        rng.setState(s.rngState);
+        setBounds(s.worldW, s.worldH);
+    }
+
+    /** @return culled bodies currently waiting in the pool for reuse. */
+    public int bodyPoolSize() {
+        return pooledBodies;
+    }
+
+    /** @return spawns that reused a pooled body. */
+    public long bodyPoolHits() {
+        return poolHits;
+    }
+
+    /** @return spawns that had to allocate a new body. */
+    public long bodyPoolMisses() {
+        return poolMisses;
+    }
+
+    /** @return bodies the star has absorbed so far. */
+    public long capturedBodies() {
+        return capturedBodies;
+    }
+
+    /** @return total mass the star has absorbed so far. */
+    public double capturedMass() {
+        return capturedMass;
+    }
+
+    /** @return bodies spawned so far. */
+    public long spawnCount() {
+        return spawned;
+    }
+
+    /** @return bodies removed so far for leaving the world. */
+    public long cullCount() {
+        return culled;
+    }
+
+    /** @return how long each step() took, in nanoseconds. */
+    public LatencyHistogram tickTimes() {
+        return tickTimes;
+    }
+
+    /** @return published frames that were replaced before being painted. */
+    public long framesDropped() {
+        return frames.dropped();
+    }
+
+    /** @return bodies absorbed by collisions so far. */
+    public long mergeCount() {
+        return merges;
+    }
+
+    /** @return name of the active integrator. */
+    public String integratorMode() {
+        return integratorMode;
+    }
+
+    /** @return substeps run so far, summed over all ticks. */
+    public long substepCount() {
+        return substepTotal;
+    }
+
+    /** @return most substeps any one tick was split into. */
+    public int substepMax() {
+        return substepMax;
+    }
+
+    /** @return force evaluations per substep of the active integrator. */
+    public int forceEvaluations() {
+        return integrator.evaluations();
+    }
+
+    /** @return number of energy drift samples taken (energy_every). */
+    public long energySamples() {
+        return energySamples;
+    }
+
+    /**
+     * Returns the mean relative energy change over one tick of integration,
+     * (E after - E before) / |E before|, over the sampled ticks. Spawning,
+     * merging and culling are not included.
+     *
+     * @return the mean signed drift per tick, 0 if nothing was sampled
+     */
+    public double energyDriftMean() {
+        return energySamples == 0 ? 0 : energyDriftSum / energySamples;
+    }
+
+    /** @return largest relative energy change over one sampled tick. */
+    public double energyDriftMax() {
+        return energyDriftMax;
+    }
+
+    /** @return name of the active force engine ("none" if gravity is off). */
+    public String gravityMode() {
+        return gravityMode;
+    }
+
+    /** @return number of ticks run so far. */
+    public long tick() {
+        return tick;
+    }
+
+    /** @return number of live bodies, star included. */
+    public int bodyCount() {
+        return store != null ? store.size() : bodies.size();
+    }
+
+    /**
+     * Advances the simulation by one tick: gravity and movement, merging of
+     * touching bodies, spawning, then culling of bodies that left the world
+     * or were absorbed, with star capture done in the same culling pass.
+     */
+    public void step() {
+        long start = System.nanoTime();
+        Config next = nextCfg;
+        if (next != cfg) {
+            applyConfig(next);
+        }
+
+        int W = worldW;
+        int H = worldH;
+        double dt = timeStep;
+
+        // pulling every body toward the others, then moving all bodies
+        boolean sample = forces != null && cfg.energyEvery() > 0 && tick % cfg.energyEvery() == 0;
+        double energyBefore = sample ? energy() : 0;
+        if (integrator instanceof IntegratorImpl_Euler && substeps == 1 && !cfg.adaptiveDt() && dt == 1) {
+            if (stepper != null) {
+                parallelStep();
+            } else if (store != null) {
+                applyGravity();
+                store.move();
+            } else {
+                applyGravity();
+                moveBodies();
+            }
+            substepTotal++;
+            substepMax = Math.max(substepMax, 1);
+        } else {
+            integrate(dt);
+        }
+        if (sample && energyBefore != 0) {
+            double drift = (energy() - energyBefore) / Math.abs(energyBefore);
+            energySamples++;
+            energyDriftSum += drift;
+            energyDriftMax = Math.max(energyDriftMax, Math.abs(drift));
+        }
+
+        if (grid != null) {
+            collide();
+        }
+
+        // Spawning and culling stay serial, in the same order as the
+        // single-threaded run, so a given rng sequence gives the same result
+        // whatever the thread count.
+        // Probabilistically spawning from top/bottom (gen_x) and left/right (gen_y)
+        maybeSpawn(true,  cfg.genX() * dt, W, H); // top/bottom
+        maybeSpawn(false, cfg.genY() * dt, W, H); // left/right
+
+        // Removing off-screen and absorbed bodies, and feeding the ones that
+        // hit the star to it (single compaction pass)
+        if (store != null) {
+            int s = starIndex();
+            if (cfg.starCapture() && s >= 0) {
+                double before = store.m[s];
+                int n = store.size();
+                int k = store.removeOffscreen(W, H, s);
+                culled += n - store.size() - k;
+                if (k > 0) {
+                    capturedBodies += k;
+                    capturedMass += store.m[s] - before;
+                }
+            } else {
+                culled += store.removeOffscreen(W, H);
+            }
+        } else {
+            cullW = W;
+            cullH = H;
+            capturing = cfg.starCapture() && star != null;
+            bodies.removeIf(culler);
+        }
+
+        tick++;
+        if (recorder != null && tick % recorder.every() == 0) {
+            record();
+        }
+        tickTimes.record(System.nanoTime() - start);
+    }
+
+    /**
+     * Copies the current bodies into a Frame and publishes it for painting.
+     * Must be called from the thread that calls step().
+     */
+    public void publish() {
+        Frame f = frames.back();
+        int n = bodyCount();
+        f.ensureCapacity(n);
+        if (store != null) {
+            System.arraycopy(store.x, 0, f.x, 0, n);
+            System.arraycopy(store.y, 0, f.y, 0, n);
+            System.arraycopy(store.r, 0, f.r, 0, n);
+            System.arraycopy(store.color, 0, f.color, 0, n);
+        } else {
+            int i = 0;
+            for (CelestialBody b : bodies) {
+                f.x[i] = b.x;
+                f.y[i] = b.y;
+                f.r[i] = b.r;
+                f.color[i] = b.color;
+                i++;
+            }
+        }
+        f.count = n;
+        f.tick = tick;
+        frames.publish();
+    }
+
+    /**
+     * Returns true if the painter has already taken the last published
+     * frame, so publishing again would not be wasted.
+     *
+     * @return {@code true} if a new frame is wanted
+     */
+    public boolean frameWanted() {
+        return frames.wanted();
+    }
+
+    /**
+     * Returns the newest published frame (null before the first publish).
+     * Call from the painting thread only.
+     *
+     * @return the latest frame
+     */
+    public Frame latestFrame() {
+        return frames.latest();
+    }
+
+    /**
+     * Returns the trajectory recorder, or null if record_file is not set.
+     *
+     * @return the recorder
+     */
+    public TrajectoryRecorder recorder() {
+        return recorder;
+    }
+
+    /**
+     * Finishes the trajectory log, if one is being written. Safe to call
+     * from any thread and more than once; later ticks are not recorded.
+     */
+    public void stopRecording() {
+        if (recorder != null) {
+            recorder.close();
+        }
+    }
+
+    /** Stops any worker threads owned by the simulation. */
+    public void shutdown() {
+        if (stepper != null) {
+            stepper.shutdown();
+        }
+        stopRecording();
+    }
+
+
+    // Helpers
+
+    // Hands the current body states to the recorder; skipped (and counted
+    // there) if its writer is still busy with the last two. The log counts
+    // time in steps, so velocities go in as distance per step.
+    private void record() {
+        int n = bodyCount();
+        double dt = timeStep;
+        TrajectoryRecorder.Sample s = recorder.begin(tick, n);
+        if (s == null) {
+            return;
+        }
+        if (store != null) {
+            System.arraycopy(store.id, 0, s.id, 0, n);
+            System.arraycopy(store.x, 0, s.x, 0, n);
+            System.arraycopy(store.y, 0, s.y, 0, n);
+            if (dt == 1) {
+                System.arraycopy(store.vx, 0, s.vx, 0, n);
+                System.arraycopy(store.vy, 0, s.vy, 0, n);
+            } else {
+                for (int i = 0; i < n; i++) {
+                    s.vx[i] = store.vx[i] * dt;
+                    s.vy[i] = store.vy[i] * dt;
+                }
+            }
+            System.arraycopy(store.r, 0, s.r, 0, n);
+            System.arraycopy(store.color, 0, s.color, 0, n);
+        } else {
+            int i = 0;
+            for (CelestialBody b : bodies) {
+                s.id[i] = b.id;
+                s.x[i] = b.x;
+                s.y[i] = b.y;
+                s.vx[i] = b.vx * dt;
+                s.vy[i] = b.vy * dt;
+                s.r[i] = b.r;
+                s.color[i] = b.color;
+                i++;
+            }
+        }
+        recorder.commit(s);
+    }
+
+    // Picks the force engine described by c ("none" | "barneshut" | "direct")
+    private void buildForces(Config c) {
+        String gravity = c.gravity();
+        forces = null;
+        gravityMode = "none";
+
+        if (gravity.equals("barneshut")) {
+            forces = new ForceImpl_BarnesHut(c.gravityConstant(), c.softening(), c.theta());
+            gravityMode = gravity;
+        } else if (gravity.equals("direct")) {
+            forces = new ForceImpl_Direct(c.gravityConstant(), c.softening());
+            gravityMode = gravity;
+        } else if (!gravity.equals("none")) {
+            System.err.println("Unknown gravity mode '" + gravity + "', gravity disabled.");
+        }
+    }
+
+    // Picks the integrator described by c ("euler" | "leapfrog" | "verlet")
+    private void buildIntegrator(Config c) {
+        String mode = c.integrator();
+        if (mode.equals("leapfrog")) {
+            integrator = new IntegratorImpl_Leapfrog();
+        } else if (mode.equals("verlet")) {
+            integrator = new IntegratorImpl_Verlet();
+        } else {
+            if (!mode.equals("euler")) {
+                System.err.println("Unknown integrator '" + mode + "', using euler.");
+                mode = "euler";
+            }
+            integrator = new IntegratorImpl_Euler();
+        }
+        integratorMode = mode;
+        if (!c.adaptiveDt()) {
+            substeps = 1;
+        }
+    }
+
+    // Creates the collision grid if c turns collisions on, sized from body_size
+    private void buildCollisions(Config c) {
+        grid = c.collisions() ? new CollisionGrid(c.bodySize()) : null;
+    }
+
+    // Switches to a reloaded config between ticks, rebuilding the force
+    // engine or collision grid only if one of their settings changed
+    private void applyConfig(Config next) {
+        boolean gravityChanged = !next.gravity().equals(cfg.gravity())
+                || next.gravityConstant() != cfg.gravityConstant()
+                || next.softening() != cfg.softening()
+                || next.theta() != cfg.theta();
+        boolean collisionsChanged = next.collisions() != cfg.collisions()
+                || next.bodySize() != cfg.bodySize();
+        boolean integratorChanged = !next.integrator().equals(cfg.integrator())
+                || next.adaptiveDt() != cfg.adaptiveDt();
+        cfg = next;
+        if (gravityChanged) {
+            buildForces(next);
+        }
+        if (integratorChanged) {
+            buildIntegrator(next);
+        }
+        if (collisionsChanged) {
+            buildCollisions(next);
+        }
+        System.out.printf("Config reloaded at tick %d: gen_x=%.3f gen_y=%.3f body_size=%d body_velocity=%d gravity=%s integrator=%s%n",
+                tick, next.genX(), next.genY(), next.bodySize(), next.bodyVelRange(), gravityMode, integratorMode);
+    }
+
+    // Adds one tick of gravitational acceleration to every body's velocity.
+    // The list path gathers positions into scratch arrays first, so both
+    // body stores share the same force engines.
+    private void applyGravity() {
+        if (forces == null) {
+            return;
+        }
+        if (store != null) {
+            int n = store.size();
+            ensureScratch(n);
+            forces.prepare(store.x, store.y, store.m, n);
+            forces.accelerations(0, n, ax, ay);
+            store.accelerate(ax, ay);
+            return;
+        }
+
+        int n = bodies.size();
+        ensureScratch(n);
+        int i = 0;
+        for (CelestialBody b : bodies) {
+            gx[i] = b.x;
+            gy[i] = b.y;
+            gm[i] = b.m;
+            i++;
+        }
+        forces.prepare(gx, gy, gm, n);
+        forces.accelerations(0, n, ax, ay);
+        i = 0;
+        for (CelestialBody b : bodies) {
+            b.vx += ax[i];
+            b.vy += ay[i];
+            i++;
+        }
+    }
+
+    // Runs the integrator over substeps equal steps making up one tick of
+    // the given length, then picks the substep count for the next tick from
+    // the largest acceleration seen: dt = dt_eta * sqrt(L / a_max), with L
+    // the softening length (at least 1 pixel). The list path gathers positions
+    // and velocities into arrays and scatters them back afterwards.
+    private void integrate(double length) {
+        int k = substeps;
+        double dt = length / k;
+        maxAccel2 = 0;
+        if (store != null) {
+            int n = store.size();
+            ensureScratch(n);
+            for (int s = 0; s < k; s++) {
+                integrator.step(field, store.x, store.y, store.vx, store.vy, store.m, n, dt, ax, ay);
+            }
+        } else {
+            int n = bodies.size();
+            ensureScratch(n);
+            int i = 0;
+            for (CelestialBody b : bodies) {
+                gx[i] = b.x;
+                gy[i] = b.y;
+                gvx[i] = b.vx;
+                gvy[i] = b.vy;
+                gm[i] = b.m;
+                i++;
+            }
+            for (int s = 0; s < k; s++) {
+                integrator.step(field, gx, gy, gvx, gvy, gm, n, dt, ax, ay);
+            }
+            i = 0;
+            for (CelestialBody b : bodies) {
+                b.x = gx[i];
+                b.y = gy[i];
+                b.vx = gvx[i];
+                b.vy = gvy[i];
+                i++;
+            }
+        }
+        substepTotal += k;
+        substepMax = Math.max(substepMax, k);
+
+        if (cfg.adaptiveDt() && maxAccel2 > 0) {
+            double len = Math.max(1.0, cfg.softening());
+            double step = cfg.dtEta() * Math.sqrt(len / Math.sqrt(maxAccel2));
+            substeps = (int) Math.min(cfg.maxSubsteps(), Math.max(1, Math.ceil(length / step)));
+        } else {
+            substeps = 1;
+        }
+    }
+
+    // Integrator.Field over the force engine, on the stepper's pool when
+    // there is one; also notes the largest acceleration for adaptive_dt
+    private boolean accelerations(double[] x, double[] y, double[] m, int n, double[] ax, double[] ay) {
+        if (forces == null) {
+            return false;
+        }
+        if (stepper != null) {
+            stepper.accelerations(forces, x, y, m, n, ax, ay);
+        } else {
+            forces.prepare(x, y, m, n);
+            forces.accelerations(0, n, ax, ay);
+        }
+        if (cfg.adaptiveDt()) {
+            double max = maxAccel2;
+            for (int i = 0; i < n; i++) {
+                max = Math.max(max, ax[i] * ax[i] + ay[i] * ay[i]);
+            }
+            maxAccel2 = max;
+        }
+        return true;
+    }
+
+    // Total kinetic plus softened potential energy of all bodies, summing
+    // every pair directly, so O(n^2): only run every energy_every ticks
+    private double energy() {
+        int n = bodyCount();
+        double[] px, py, pvx, pvy, pm;
+        if (store != null) {
+            px = store.x;
+            py = store.y;
+            pvx = store.vx;
+            pvy = store.vy;
+            pm = store.m;
+        } else {
+            ensureScratch(n);
+            int i = 0;
+            for (CelestialBody b : bodies) {
+                gx[i] = b.x;
+                gy[i] = b.y;
+                gvx[i] = b.vx;
+                gvy[i] = b.vy;
+                gm[i] = b.m;
+                i++;
+            }
+            px = gx;
+            py = gy;
+            pvx = gvx;
+            pvy = gvy;
+            pm = gm;
+        }
+        double eps2 = cfg.softening() * cfg.softening();
+        double kinetic = 0, potential = 0;
+        for (int i = 0; i < n; i++) {
+            kinetic += 0.5 * pm[i] * (pvx[i] * pvx[i] + pvy[i] * pvy[i]);
+            double sum = 0;
+            for (int j = i + 1; j < n; j++) {
+                double dx = px[j] - px[i];
+                double dy = py[j] - py[i];
+                double d2 = dx * dx + dy * dy + eps2;
+                if (d2 > 0) {
+                    sum += pm[j] / Math.sqrt(d2);
+                }
+            }
+            potential -= pm[i] * sum;
+        }
+        return kinetic + cfg.gravityConstant() * potential;
+    }
+
+    // Moves every list body by its velocity. Kept as its own small method so
+    // the JIT can inline the cursor and drop its allocation.
+    private void moveBodies() {
+        for (CelestialBody b : bodies) {
+            b.x += b.vx;
+            b.y += b.vy;
+        }
+    }
+
+    // Merges touching bodies. SoA bodies are merged in place and the absorbed
+    // ones removed; list bodies are gathered, merged, and written back with
+    // the absorbed ones flagged dead for the cull pass to drop. With
+    // star_capture on, the star is left to the cull pass instead.
+    private void collide() {
+        int n = bodyCount();
+        int exclude = cfg.starCapture() ? starIndex() : -1;
+        ensureScratch(n);
+        if (gdead.length < n) {
+            gdead = new boolean[ax.length];
+        }
+        Arrays.fill(gdead, 0, n, false);
+
+        if (store != null) {
+            int absorbed = grid.merge(store.x, store.y, store.vx, store.vy, store.m, store.r, gdead, n, exclude);
+            if (absorbed > 0) {
+                store.removeDead(gdead);
+                merges += absorbed;
+            }
+            return;
+        }
+
+        if (gr.length < n) {
+            gr = new double[ax.length];
+        }
+        int i = 0;
+        for (CelestialBody b : bodies) {
+            gx[i] = b.x;
+            gy[i] = b.y;
+            gvx[i] = b.vx;
+            gvy[i] = b.vy;
+            gm[i] = b.m;
+            gr[i] = b.r;
+            i++;
+        }
+        int absorbed = grid.merge(gx, gy, gvx, gvy, gm, gr, gdead, n, exclude);
+        if (absorbed == 0) {
+            return;
+        }
+        merges += absorbed;
+        i = 0;
+        for (CelestialBody b : bodies) {
+            b.x = gx[i];
+            b.y = gy[i];
+            b.vx = gvx[i];
+            b.vy = gvy[i];
+            b.m = gm[i];
+            b.r = (int) gr[i];
+            b.dead = gdead[i];
+            i++;
+        }
+    }
+
+    // Runs gravity and movement on the stepper's pool. The list path gathers
+    // positions and velocities into arrays and scatters them back afterwards.
+    private void parallelStep() {
+        if (store != null) {
+            int n = store.size();
+            ensureScratch(n);
+            stepper.step(forces, store.x, store.y, store.vx, store.vy, store.m, n, ax, ay);
+            return;
+        }
+
+        int n = bodies.size();
+        ensureScratch(n);
+        int i = 0;
+        for (CelestialBody b : bodies) {
+            gx[i] = b.x;
+            gy[i] = b.y;
+            gvx[i] = b.vx;
+            gvy[i] = b.vy;
+            gm[i] = b.m;
+            i++;
+        }
+        stepper.step(forces, gx, gy, gvx, gvy, gm, n, ax, ay);
+        i = 0;
+        for (CelestialBody b : bodies) {
+            b.x = gx[i];
+            b.y = gy[i];
+            b.vx = gvx[i];
+            b.vy = gvy[i];
+            i++;
+        }
+    }
+
+    // Grows the scratch arrays to hold at least n bodies
+    private void ensureScratch(int n) {
+        if (ax.length >= n) {
+            return;
+        }
+        int cap = Math.max(n, ax.length * 2);
+        ax = new double[cap];
+        ay = new double[cap];
+        if (store == null) {
+            gx = new double[cap];
+            gy = new double[cap];
+            gm = new double[cap];
+            gvx = new double[cap];
+            gvy = new double[cap];
+        }
+    }
+
+    // Returns a body holding the given values, reusing a culled one if any
+    private CelestialBody obtainBody(long id, double x, double y, double vx, double vy, int r, double m, byte c) {
+        if (pooledBodies > 0) {
+            CelestialBody b = bodyPool[--pooledBodies];
+            bodyPool[pooledBodies] = null;
+            b.reset(id, x, y, vx, vy, r, m, c);
+            poolHits++;
+            return b;
+        }
+        poolMisses++;
+        return new CelestialBody(id, x, y, vx, vy, r, m, c);
+    }
+
+    // Index of the star in the body container, or -1 once it has been culled
+    private int starIndex() {
+        if (store != null) {
+            return store.size() > 0 && store.color[0] == BodyStore.STAR ? 0 : -1;
+        }
+        return star != null ? 0 : -1;
+    }
+
+    // removeIf filter: drops absorbed and off-screen bodies, feeds bodies
+    // touching the star to it, and keeps the dropped ones for respawning
+    private boolean cull(CelestialBody b) {
+        if (b.dead || isOffscreen(b, cullW, cullH)) {
+            if (!b.dead) {
+                culled++;
+            }
+            if (b == star) {
+                star = null;
+                capturing = false;
+            }
+        } else if (capturing && b != star && touchesStar(b)) {
+            double total = star.m + b.m;
+            if (total > 0) {
+                star.vx = (star.m * star.vx + b.m * b.vx) / total;
+                star.vy = (star.m * star.vy + b.m * b.vy) / total;
+            }
+            star.m = total;
+            capturedBodies++;
+            capturedMass += b.m;
+        } else {
+            return false;
+        }
+        if (pooledBodies < bodyPool.length) {
+            bodyPool[pooledBodies++] = b;
+        }
+        return true;
+    }
+
+    private boolean touchesStar(CelestialBody b) {
+        double dx = b.x - star.x;
+        double dy = b.y - star.y;
+        double rr = star.r + b.r;
+        return dx * dx + dy * dy < rr * rr;
+    }
+
+    // Checks if the entire circle is outside the screen.
+    private boolean isOffscreen(CelestialBody b, int W, int H) {
+        double left   = b.x - b.r;
+        double right  = b.x + b.r;
+        double top    = b.y - b.r;
+        double bottom = b.y + b.r;
+        return right < 0 || left > W || bottom < 0 || top > H;
+    }
+
+    // Generates a non-zero random integer between -maxAbs and +maxAbs
+    private int nonZeroRandSpeed(int maxAbs) {
+        if (maxAbs <= 0) return 0;
+        int v = 0;
+        while (v == 0) {
+            v = rng.nextInt(maxAbs * 2 + 1) - maxAbs; // [-maxAbs, +maxAbs]
+        }
+        return v;
+    }
+
+    // Probabilistically spawns one body on either the top/bottom (alongX=true) * or left/right (alongX=false) edge
+    private void maybeSpawn(boolean alongX, double prob, int W, int H) {
+        if (rng.nextDouble() >= prob) {
+            return;
+        }
+
+        int r    = cfg.bodySize();
+        int vmax = cfg.bodyVelRange();
+        boolean fromMinSide = rng.nextBoolean(); // top/left if true, bottom/right if false
+
+        // Random position inside visible span (so the whole circle is on-screen)
+        double x, y;
+        int vx = nonZeroRandSpeed(vmax);
+        int vy = nonZeroRandSpeed(vmax);
+
+        if (alongX) {
+            // Spawn on top/bottom edge; push inward vertically
+            if (fromMinSide) {
+                y = r;          // top
+            } else {
+                y = H - r;      // bottom
+            }
+
+            x = r + rng.nextInt(Math.max(1, W - 2 * r));
+
+            vy = Math.abs(vy);
+
+            if (!fromMinSide) {
+                vy = -vy;       // from bottom: push upward
+            }
+        } else {
+            // Spawn on left/right edge; push inward horizontally
+            if (fromMinSide) {
+                x = r;          // left
+            } else {
+                x = W - r;      // right
+            }
+            y = r + rng.nextInt(Math.max(1, H - 2 * r));
+
+            vx = Math.abs(vx);
+            if (!fromMinSide) {
+                vx = -vx;       // from right: push leftward
+            }
+        }
+
+        byte c;
+        if (alongX) {
+            c = BodyStore.TOP_BOTTOM;
+        } else {
+            c = BodyStore.LEFT_RIGHT;
+        }
+
+        if (store != null) {
+            store.add(nextId++, x, y, vx, vy, r, cfg.bodyMass(), c);
+        } else {
+            bodies.add(bodies.size(), obtainBody(nextId++, x, y, vx, vy, r, cfg.bodyMass(), c));
+        }
+        spawned++;
+    }
+}
@@ -0,0 +1,161 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Saved simulation state: every body, the RNG state, tick, next body id
+ * and world size
+ * Simulation.snapshot() fills one and Simulation.restore() puts it back, so
+ * a run can start from a warmed-up steady state and repeat the same ticks.
+ *
+ * File layout (big-endian): a 48 byte header
+ *   int magic, int version, long tick, long rngState, long nextId,
+ *   int worldW, int worldH, int count, int substeps
+ * followed by the body fields one column at a time: count longs of id,
+ * count doubles each of x, y, vx, vy, r and m, then count color bytes.
+ * Columns load with bulk gets straight out of a memory-mapped file.
+ * substeps is the adaptive_dt split chosen for the next tick; files
+ * written before it existed have 0 there and load as 1. Version 1 files
+ * (40 byte header, no ids, no nextId) still load; their bodies are
+ * numbered in order.
+ */
+public class Snapshot {
+
+    private static final int MAGIC = 0x4D4D5331;   // "MMS1"
+    private static final int VERSION = 2;
+    private static final int HEADER = 48;
+    private static final int HEADER_V1 = 40;
+    private static final int BODY_BYTES = Long.BYTES + 6 * Double.BYTES + 1;
+    private static final int BODY_BYTES_V1 = 6 * Double.BYTES + 1;
+
+    // Body columns, valid in [0, count); the star, if alive, is body 0
+    long[] id;
+    double[] x, y, vx, vy, r, m;
+    byte[] color;
+    int count;
+
+    long tick;
+    long rngState;
+    long nextId;
+    int substeps = 1;
+    int worldW, worldH;
+
+    /**
+     * Creates an empty snapshot with room for n bodies.
+     *
+     * @param n number of bodies
+     */
+    public Snapshot(int n) {
+        id = new long[n];
+        x = new double[n];
+        y = new double[n];
+        vx = new double[n];
+        vy = new double[n];
+        r = new double[n];
+        m = new double[n];
+        color = new byte[n];
+        count = n;
+    }
+
+    /** @return number of bodies in the snapshot. */
+    public int count() {
+        return count;
+    }
+
+    /** @return the tick the snapshot was taken at. */
+    public long tick() {
+        return tick;
+    }
+
+    /**
+     * Writes the snapshot to a file, replacing it if it exists.
+     *
+     * @param filename file to write
+     * @throws IOException if the file cannot be written
+     */
+    public void write(String filename) throws IOException {
+        int n = count;
+        ByteBuffer buf = ByteBuffer.allocate(HEADER + n * BODY_BYTES);
+        buf.putInt(MAGIC).putInt(VERSION).putLong(tick).putLong(rngState).putLong(nextId)
+           .putInt(worldW).putInt(worldH).putInt(n).putInt(substeps);
+        buf.asLongBuffer().put(id, 0, n);
+        buf.position(buf.position() + n * Long.BYTES);
+        for (double[] col : new double[][] { x, y, vx, vy, r, m }) {
+            buf.asDoubleBuffer().put(col, 0, n);
+            buf.position(buf.position() + n * Double.BYTES);
+        }
+        buf.put(color, 0, n);
+        buf.flip();
+
+        Path path = Paths.get(filename);
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buf.hasRemaining()) {
+                ch.write(buf);
+            }
+        }
+    }
+
+    /**
+     * Reads a snapshot written by write(), mapping the file into memory.
+     *
+     * @param filename file to read
+     * @return the loaded snapshot
+     * @throws IOException if the file cannot be read or is not a snapshot
+     */
+    public static Snapshot read(String filename) throws IOException {
+        try (FileChannel ch = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            long size = ch.size();
+            if (size < HEADER_V1) {
+                throw new IOException("Not a snapshot file (too short): " + filename);
+            }
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buf.getInt() != MAGIC) {
+                throw new IOException("Not a snapshot file: " + filename);
+            }
+            int version = buf.getInt();
+            if (version != VERSION && version != 1) {
+                throw new IOException("Unsupported snapshot version " + version + ": " + filename);
+            }
+            boolean v1 = version == 1;
+            long tick = buf.getLong();
+            long rngState = buf.getLong();
+            long nextId = v1 ? 0 : buf.getLong();
+            int w = buf.getInt();
+            int h = buf.getInt();
+            int n = buf.getInt();
+            int substeps = buf.getInt();
+            long expected = v1 ? HEADER_V1 + (long) n * BODY_BYTES_V1 : HEADER + (long) n * BODY_BYTES;
+            if (n < 0 || size != expected) {
+                throw new IOException("Truncated snapshot file: " + filename);
+            }
+
+            Snapshot s = new Snapshot(n);
+            s.tick = tick;
+            s.rngState = rngState;
+            s.worldW = w;
+            s.worldH = h;
+            s.substeps = Math.max(1, substeps);
+            if (v1) {
+                for (int i = 0; i < n; i++) {
+                    s.id[i] = i;
+                }
+                s.nextId = n;
+            } else {
+                buf.asLongBuffer().get(s.id, 0, n);
+                buf.position(buf.position() + n * Long.BYTES);
+                s.nextId = nextId;
+            }
+            for (double[] col : new double[][] { s.x, s.y, s.vx, s.vy, s.r, s.m }) {
+                buf.asDoubleBuffer().get(col, 0, n);
+                buf.position(buf.position() + n * Double.BYTES);
+            }
+            buf.get(s.color, 0, n);
+            return s;
+        }
+    }
+}
@@ -0,0 +1,606 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Streams a trajectory log written by TrajectoryRecorder back one record
+ * at a time
+ * Only the current block is held in memory, so files of any length can be
+ * read. Call next() to move to the following record, then read its bodies
+ * through the accessors; bodies come out sorted by id.
+ *
+ * Opened with mapped=true the file is memory-mapped instead of read, and
+ * blocks are inflated straight out of the mapping. seek() jumps to any
+ * tick using an index of block start ticks, decoding only the block the
+ * tick falls in.
+ *
+ * Run directly to print a summary of a file, or every body with --dump:
+ *   java TrajectoryReader trajectory.mmt [--dump]
+ */
+public class TrajectoryReader implements AutoCloseable {
+
+    private final String filename;
+    private final FileChannel ch;
+    private final MappedByteBuffer map;   // null when streaming
+    private final int version;
+    private final int every;
+    private final int tickMicros;   // wall time per recorded tick, 0 if unknown
+    private final double posScale, velScale;
+    private final int shift;
+
+    private final ByteBuffer blockHeader = ByteBuffer.allocate(TrajectoryRecorder.BLOCK_HEADER);
+    private final Inflater inflater = new Inflater();
+    private byte[] comp = new byte[0];
+    private byte[] raw = new byte[0];
+    private int rawLen, pos;
+    private int blockRecords;   // records left in the current block
+    private int block = -1;     // index of the current block
+    private long next = TrajectoryRecorder.HEADER;   // file offset of the following block
+
+    // Block index for seek(), built on first use
+    private long[] blockOffset, blockTick;
+    private int blocks = -1;
+
+    // Current record, and the previous one it was predicted from
+    private long tick, prevTick;
+    private int count, prevCount;
+    private long[] id = new long[0], qx = new long[0], qy = new long[0], qvx = new long[0], qvy = new long[0];
+    private long[] pid = new long[0], pqx = new long[0], pqy = new long[0], pqvx = new long[0], pqvy = new long[0];
+    private long[] qr = new long[0], pqr = new long[0];
+    private byte[] col = new byte[0], pcol = new byte[0];
+    private int[] match = new int[0];
+    private long records;
+
+    /**
+     * Opens a trajectory log for streaming and reads its header.
+     *
+     * @param filename file to read
+     * @throws IOException if the file cannot be read or is not a trajectory log
+     */
+    public TrajectoryReader(String filename) throws IOException {
+        this(filename, false);
+    }
+
+    /**
+     * Opens a trajectory log and reads its header.
+     *
+     * @param filename file to read
+     * @param mapped true to memory-map the file (up to 2GB) instead of reading it
+     * @throws IOException if the file cannot be read or is not a trajectory log
+     */
+    public TrajectoryReader(String filename, boolean mapped) throws IOException {
+        this.filename = filename;
+        ch = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+        try {
+            long size = ch.size();
+            if (mapped && size > Integer.MAX_VALUE) {
+                throw new IOException("Trajectory file too large to map (" + size + " bytes): " + filename);
+            }
+            map = mapped ? ch.map(FileChannel.MapMode.READ_ONLY, 0, size) : null;
+
+            ByteBuffer header = ByteBuffer.allocate(TrajectoryRecorder.HEADER);
+            if (!readAt(header, 0)) {
+                throw new IOException("Not a trajectory file (too short): " + filename);
+            }
+            if (header.getInt() != TrajectoryRecorder.MAGIC) {
+                throw new IOException("Not a trajectory file: " + filename);
+            }
+            version = header.getInt();
+            if (version != TrajectoryRecorder.VERSION && version != 1) {
+                throw new IOException("Unsupported trajectory version " + version + ": " + filename);
+            }
+            int posBits = header.getInt();
+            int velBits = header.getInt();
+            every = header.getInt();
+            tickMicros = Math.max(0, header.getInt());
+            if (posBits < 0 || velBits < posBits || velBits > 30) {
+                throw new IOException("Bad trajectory precision " + posBits + "/" + velBits + ": " + filename);
+            }
+            posScale = 1 << posBits;
+            velScale = 1 << velBits;
+            shift = velBits - posBits;
+        } catch (IOException e) {
+            ch.close();
+            throw e;
+        }
+    }
+
+    /** @return ticks between records, as set when recording. */
+    public int every() {
+        return every;
+    }
+
+    /** @return wall time one tick took when recorded, in microseconds, or 0 if the file does not say. */
+    public int tickMicros() {
+        return tickMicros;
+    }
+
+    /** @return records decoded so far. */
+    public long records() {
+        return records;
+    }
+
+    /**
+     * Moves to the next record.
+     *
+     * @return {@code false} at the end of the file
+     * @throws IOException if the file cannot be read or is damaged
+     */
+    public boolean next() throws IOException {
+        if (blockRecords == 0 && !readBlock()) {
+            return false;
+        }
+        try {
+            decode();
+        } catch (ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Corrupt trajectory block: " + filename);
+        }
+        blockRecords--;
+        if (blockRecords == 0 && pos != rawLen) {
+            throw new IOException("Corrupt trajectory block: " + filename);
+        }
+        records++;
+        return true;
+    }
+
+    /**
+     * Returns the tick of the record next() would move to, without moving.
+     *
+     * @return the tick, or -1 at the end of the file
+     * @throws IOException if the file cannot be read
+     */
+    public long peekTick() throws IOException {
+        if (blockRecords > 0) {
+            int save = pos;
+            long dt = getVarint();
+            pos = save;
+            return prevTick + dt;
+        }
+        blockHeader.clear();
+        if (!readAt(blockHeader, next)) {
+            return -1;
+        }
+        return blockHeader.getLong(8);   // a block's first record is at its first tick
+    }
+
+    /**
+     * Moves to the last record at or before the given tick, or to the first
+     * record if the tick comes before it. Only the block holding that
+     * record is decoded, and only up to it.
+     *
+     * @param target tick to move to
+     * @return {@code false} if the file has no records
+     * @throws IOException if the file cannot be read or is damaged
+     */
+    public boolean seek(long target) throws IOException {
+        index();
+        if (blocks == 0) {
+            return false;
+        }
+        int b = Arrays.binarySearch(blockTick, 0, blocks, target);
+        if (b < 0) {
+            b = Math.max(0, -b - 2);   // last block starting before target
+        }
+
+        if (b != block || records == 0 || target < tick) {
+            next = blockOffset[b];
+            block = b - 1;
+            blockRecords = 0;
+            if (!next()) {
+                return false;
+            }
+        }
+        while (blockRecords > 0) {
+            long t = peekTick();
+            if (t > target) {
+                break;
+            }
+            next();
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of complete blocks in the file. A block still
+     * being written at the end of the file is not counted.
+     *
+     * @return the block count
+     * @throws IOException if the file cannot be read
+     */
+    public int blocks() throws IOException {
+        index();
+        return blocks;
+    }
+
+    /**
+     * Returns the tick of the first record in block b.
+     *
+     * @param b block index, in [0, blocks())
+     * @return the tick
+     * @throws IOException if the file cannot be read
+     */
+    public long blockTick(int b) throws IOException {
+        index();
+        if (b < 0 || b >= blocks) {
+            throw new IndexOutOfBoundsException("index=" + b + ", size=" + blocks);
+        }
+        return blockTick[b];
+    }
+
+    /** @return tick of the current record. */
+    public long tick() {
+        return tick;
+    }
+
+    /** @return number of bodies in the current record. */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Returns the id of body i of the current record.
+     *
+     * @param i body index, in [0, count())
+     * @return the body id
+     */
+    public long id(int i) {
+        checkIndex(i);
+        return id[i];
+    }
+
+    /**
+     * Returns the x position of body i of the current record.
+     *
+     * @param i body index, in [0, count())
+     * @return x in pixels
+     */
+    public double x(int i) {
+        checkIndex(i);
+        return qx[i] / posScale;
+    }
+
+    /**
+     * Returns the y position of body i of the current record.
+     *
+     * @param i body index, in [0, count())
+     * @return y in pixels
+     */
+    public double y(int i) {
+        checkIndex(i);
+        return qy[i] / posScale;
+    }
+
+    /**
+     * Returns the x velocity of body i of the current record.
+     *
+     * @param i body index, in [0, count())
+     * @return x velocity in pixels per tick
+     */
+    public double vx(int i) {
+        checkIndex(i);
+        return qvx[i] / velScale;
+    }
+
+    /**
+     * Returns the y velocity of body i of the current record.
+     *
+     * @param i body index, in [0, count())
+     * @return y velocity in pixels per tick
+     */
+    public double vy(int i) {
+        checkIndex(i);
+        return qvy[i] / velScale;
+    }
+
+    /**
+     * Returns the radius of body i of the current record. Version 1 files
+     * do not store it and give 1.
+     *
+     * @param i body index, in [0, count())
+     * @return radius in pixels
+     */
+    public double r(int i) {
+        checkIndex(i);
+        return version == 1 ? 1.0 : qr[i] / posScale;
+    }
+
+    /**
+     * Returns the color index of body i of the current record (see
+     * BodyStore). Version 1 files do not store it and give TOP_BOTTOM.
+     *
+     * @param i body index, in [0, count())
+     * @return the color index
+     */
+    public byte color(int i) {
+        checkIndex(i);
+        return version == 1 ? BodyStore.TOP_BOTTOM : col[i];
+    }
+
+    /**
+     * Closes the file.
+     *
+     * @throws IOException if closing fails
+     */
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        ch.close();
+    }
+
+    private void checkIndex(int i) {
+        if (i < 0 || i >= count) {
+            throw new IndexOutOfBoundsException("index=" + i + ", size=" + count);
+        }
+    }
+
+    // Scans the block headers once, recording where each block starts
+    private void index() throws IOException {
+        if (blocks >= 0) {
+            return;
+        }
+        long[] offsets = new long[16];
+        long[] ticks = new long[16];
+        int n = 0;
+        long size = ch.size();
+        long at = TrajectoryRecorder.HEADER;
+        ByteBuffer header = ByteBuffer.allocate(TrajectoryRecorder.BLOCK_HEADER);
+        while (at + TrajectoryRecorder.BLOCK_HEADER <= size) {
+            header.clear();
+            readAt(header, at);
+            int compLength = header.getInt(4);
+            long end = at + TrajectoryRecorder.BLOCK_HEADER + compLength;
+            if (compLength < 0 || end > size) {
+                break;
+            }
+            if (n == offsets.length) {
+                offsets = Arrays.copyOf(offsets, n * 2);
+                ticks = Arrays.copyOf(ticks, n * 2);
+            }
+            offsets[n] = at;
+            ticks[n] = header.getLong(8);
+            n++;
+            at = end;
+        }
+        blockOffset = offsets;
+        blockTick = ticks;
+        blocks = n;
+    }
+
+    // Reads and inflates the block at next; false at a clean end of file
+    private boolean readBlock() throws IOException {
+        blockHeader.clear();
+        if (!readAt(blockHeader, next)) {
+            return false;
+        }
+        int rawLength = blockHeader.getInt();
+        int compLength = blockHeader.getInt();
+        long firstTick = blockHeader.getLong();
+        int recs = blockHeader.getInt();
+        if (rawLength < 0 || compLength < 0 || recs <= 0) {
+            throw new IOException("Corrupt trajectory block header: " + filename);
+        }
+        long data = next + TrajectoryRecorder.BLOCK_HEADER;
+
+        if (raw.length < rawLength) {
+            raw = new byte[rawLength];
+        }
+        inflater.reset();
+        if (map != null) {
+            if (data + compLength > map.capacity()) {
+                throw new EOFException("Truncated trajectory file: " + filename);
+            }
+            inflater.setInput(map.slice((int) data, compLength));
+        } else {
+            if (comp.length < compLength) {
+                comp = new byte[compLength];
+            }
+            if (!readAt(ByteBuffer.wrap(comp, 0, compLength), data)) {
+                throw new EOFException("Truncated trajectory file: " + filename);
+            }
+            inflater.setInput(comp, 0, compLength);
+        }
+        try {
+            int n = 0;
+            while (n < rawLength && !inflater.finished()) {
+                int k = inflater.inflate(raw, n, rawLength - n);
+                if (k == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                n += k;
+            }
+            if (n != rawLength) {
+                throw new IOException("Corrupt trajectory block: " + filename);
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt trajectory block: " + filename + ": " + e.getMessage());
+        }
+
+        next = data + compLength;
+        block++;
+        rawLen = rawLength;
+        pos = 0;
+        blockRecords = recs;
+        // every block starts without a previous record
+        prevTick = firstTick;
+        prevCount = 0;
+        count = 0;
+        return true;
+    }
+
+    // Fills buf from the file starting at offset, leaving it flipped;
+    // false if the file ends at offset, EOFException if it ends part way
+    private boolean readAt(ByteBuffer buf, long offset) throws IOException {
+        int start = buf.position();
+        if (map != null) {
+            int len = buf.remaining();
+            if (offset >= map.capacity()) {
+                return false;
+            }
+            if (offset + len > map.capacity()) {
+                throw new EOFException("Truncated trajectory file: " + filename);
+            }
+            buf.put(map.slice((int) offset, len));
+        } else {
+            while (buf.hasRemaining()) {
+                int k = ch.read(buf, offset + buf.position() - start);
+                if (k < 0) {
+                    if (buf.position() == start) {
+                        return false;
+                    }
+                    throw new EOFException("Truncated trajectory file: " + filename);
+                }
+            }
+        }
+        buf.flip();
+        buf.position(start);
+        return true;
+    }
+
+    // Decodes one record, mirroring TrajectoryRecorder.encode()
+    private void decode() throws IOException {
+        // the current record becomes the previous one
+        long[] t;
+        t = pid; pid = id; id = t;
+        t = pqx; pqx = qx; qx = t;
+        t = pqy; pqy = qy; qy = t;
+        t = pqvx; pqvx = qvx; qvx = t;
+        t = pqvy; pqvy = qvy; qvy = t;
+        t = pqr; pqr = qr; qr = t;
+        byte[] c = pcol; pcol = col; col = c;
+        prevCount = count;
+
+        long dt = getVarint();
+        long n = getVarint();
+        if (n < 0 || n > rawLen - pos) {   // every body takes at least one byte
+            throw new IOException("Corrupt trajectory block: " + filename);
+        }
+        count = (int) n;
+        tick = prevTick + dt;
+        ensureCapacity(count);
+
+        long last = -1;
+        for (int k = 0; k < count; k++) {
+            last += getVarint();
+            id[k] = last;
+        }
+
+        int j = 0;
+        for (int k = 0; k < count; k++) {
+            while (j < prevCount && pid[j] < id[k]) {
+                j++;
+            }
+            match[k] = (j < prevCount && pid[j] == id[k]) ? j : -1;
+        }
+
+        for (int k = 0; k < count; k++) {
+            int p = match[k];
+            qx[k] = getSigned() + (p < 0 ? 0 : pqx[p] + ((pqvx[p] * dt) >> shift));
+        }
+        for (int k = 0; k < count; k++) {
+            int p = match[k];
+            qy[k] = getSigned() + (p < 0 ? 0 : pqy[p] + ((pqvy[p] * dt) >> shift));
+        }
+        for (int k = 0; k < count; k++) {
+            int p = match[k];
+            qvx[k] = getSigned() + (p < 0 ? 0 : pqvx[p]);
+        }
+        for (int k = 0; k < count; k++) {
+            int p = match[k];
+            qvy[k] = getSigned() + (p < 0 ? 0 : pqvy[p]);
+        }
+        if (version > 1) {
+            for (int k = 0; k < count; k++) {
+                int p = match[k];
+                qr[k] = getSigned() + (p < 0 ? 0 : pqr[p]);
+            }
+            for (int k = 0; k < count; k++) {
+                int p = match[k];
+                col[k] = (byte) (getSigned() + (p < 0 ? 0 : pcol[p]));
+            }
+        }
+        prevTick = tick;
+    }
+
+    // Grows the current-record arrays; previous-record arrays grow on swap
+    private void ensureCapacity(int n) {
+        if (id.length >= n) {
+            return;
+        }
+        int cap = Math.max(n, id.length * 2);
+        id = new long[cap];
+        qx = new long[cap];
+        qy = new long[cap];
+        qvx = new long[cap];
+        qvy = new long[cap];
+        qr = new long[cap];
+        col = new byte[cap];
+        match = new int[cap];
+    }
+
+    private long getVarint() {
+        long v = 0;
+        for (int s = 0; ; s += 7) {
+            byte b = raw[pos++];
+            v |= (long) (b & 0x7F) << s;
+            if (b >= 0) {
+                return v;
+            }
+        }
+    }
+
+    private long getSigned() {
+        long v = getVarint();
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    /**
+     * Prints a summary of a trajectory file, or every body of every record
+     * with --dump.
+     *
+     * @param args file name, optionally followed by --dump
+     */
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage: java TrajectoryReader <file> [--dump]");
+            System.exit(2);
+        }
+        boolean dump = args.length > 1 && args[1].equals("--dump");
+        long start = System.nanoTime();
+        try (TrajectoryReader in = new TrajectoryReader(args[0])) {
+            long first = -1, last = -1, bodies = 0;
+            int most = 0;
+            while (in.next()) {
+                if (first < 0) {
+                    first = in.tick();
+                }
+                last = in.tick();
+                bodies += in.count();
+                most = Math.max(most, in.count());
+                if (dump) {
+                    for (int i = 0; i < in.count(); i++) {
+                        System.out.printf("%d %d %.4f %.4f %.6f %.6f %.2f %d%n", in.tick(), in.id(i),
+                                in.x(i), in.y(i), in.vx(i), in.vy(i), in.r(i), in.color(i));
+                    }
+                }
+            }
+            if (!dump) {
+                long size = in.ch.size();
+                double ms = (System.nanoTime() - start) / 1e6;
+                System.out.printf("%s: %d records every %d ticks, ticks %d..%d%n", args[0], in.records(), in.every(), first, last);
+                System.out.printf("%d body states (at most %d per record), %d bytes, %.2f bytes per body state%n",
+                        bodies, most, size, bodies == 0 ? 0.0 : (double) size / bodies);
+                System.out.printf("Read in %.1f ms%n", ms);
+            }
+        } catch (IOException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
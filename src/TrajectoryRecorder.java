@@ -0,0 +1,417 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+
+/**
+ * Writes body trajectories to a compact binary log (record_file)
+ * Every record_every ticks the simulation copies ids, positions,
+ * velocities, radii and colors into one of two reusable Samples and hands
+ * it over; a writer thread encodes and compresses it while the simulation
+ * fills the other one. If the writer still holds both, the sample is
+ * skipped and counted as dropped, so disk I/O never makes a tick wait.
+ *
+ * Positions and radii are stored to 1/256 pixel and velocities to 1/65536
+ * pixel per tick. Bodies are sorted by id and each value is written as the
+ * zigzag varint difference from a prediction: the same body's value in the
+ * previous record, with the position moved along its old velocity.
+ * Records are gathered into blocks of about 256KB that are deflated on
+ * their own, and the prediction starts over in every block, so a block
+ * can be decoded without reading the ones before it.
+ *
+ * File layout (big-endian): a 24 byte header
+ *   int magic, int version, int posBits, int velBits, int every, int tickMicros
+ * then blocks of
+ *   int rawLength, int compressedLength, long firstTick, int records,
+ *   compressedLength bytes of deflated record data
+ * where each record is a tick step, a body count, then one column each of
+ * id steps, x, y, vx, vy, r and color. Version 1 files have no r and color
+ * columns. tickMicros is the wall time one tick took when recorded (0 in
+ * files written before it was kept), so replay at speed 1 runs at the
+ * recorded rate. Velocities are in pixels per tick. TrajectoryReader
+ * streams the file back.
+ */
+public class TrajectoryRecorder {
+
+    static final int MAGIC = 0x4D4D5431;   // "MMT1"
+    static final int VERSION = 2;
+    static final int HEADER = 24;
+    static final int BLOCK_HEADER = 20;
+    static final int POS_BITS = 8;         // fraction bits kept for positions
+    static final int VEL_BITS = 16;        // fraction bits kept for velocities
+
+    private static final int BLOCK_BYTES = 1 << 18;   // raw bytes per block, about
+
+    /** Body state at one tick, filled by the simulation thread. */
+    static class Sample {
+
+        // Parallel arrays, valid in [0, count)
+        long[] id = new long[0];
+        double[] x = new double[0], y = new double[0];
+        double[] vx = new double[0], vy = new double[0];
+        double[] r = new double[0];
+        byte[] color = new byte[0];
+        int count;
+        long tick;
+
+        // Makes room for n bodies; old contents are not kept
+        void ensureCapacity(int n) {
+            if (id.length >= n) {
+                return;
+            }
+            int cap = Math.max(n, id.length * 2);
+            id = new long[cap];
+            x = new double[cap];
+            y = new double[cap];
+            vx = new double[cap];
+            vy = new double[cap];
+            r = new double[cap];
+            color = new byte[cap];
+        }
+    }
+
+    private static final Sample POISON = new Sample();   // tells the writer to finish
+
+    private final int every;
+    private final String filename;
+    private final FileChannel ch;
+
+    // Two samples go round: free -> simulation -> full -> writer -> free
+    private final BlockingQueue<Sample> free = new ArrayBlockingQueue<>(2);
+    private final BlockingQueue<Sample> full = new ArrayBlockingQueue<>(3);   // room for POISON
+    private final Thread writer;
+    private volatile boolean closed;
+
+    private volatile long recorded, dropped, bytes;
+
+    // Writer thread only: the block being built and the previous record
+    private byte[] raw = new byte[BLOCK_BYTES + 1024];
+    private int rawLen;
+    private byte[] comp = new byte[BLOCK_BYTES];
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    private final ByteBuffer blockHeader = ByteBuffer.allocate(BLOCK_HEADER);
+    private int blockRecords;
+    private long blockTick, prevTick;
+    private long[] keys = new long[0];
+    private int[] match = new int[0];
+    private long[] id = new long[0], qx = new long[0], qy = new long[0], qvx = new long[0], qvy = new long[0];
+    private long[] pid = new long[0], pqx = new long[0], pqy = new long[0], pqvx = new long[0], pqvy = new long[0];
+    private long[] qr = new long[0], pqr = new long[0];
+    private byte[] col = new byte[0], pcol = new byte[0];
+    private int prevCount;
+
+    /**
+     * Creates (or replaces) the log file and starts the writer thread.
+     *
+     * @param filename file to write
+     * @param every ticks between records, written to the header
+     * @param tickMicros wall time of one tick in microseconds, written to the header
+     * @throws IOException if the file cannot be created
+     */
+    public TrajectoryRecorder(String filename, int every, int tickMicros) throws IOException {
+        this.filename = filename;
+        this.every = Math.max(1, every);
+        ch = FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(HEADER);
+        header.putInt(MAGIC).putInt(VERSION).putInt(POS_BITS).putInt(VEL_BITS).putInt(this.every).putInt(Math.max(0, tickMicros));
+        header.flip();
+        while (header.hasRemaining()) {
+            ch.write(header);
+        }
+        bytes = HEADER;
+
+        free.add(new Sample());
+        free.add(new Sample());
+        writer = new Thread(this::writeLoop, "massive-motion-recorder");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /** @return ticks between records. */
+    public int every() {
+        return every;
+    }
+
+    /** @return file being written. */
+    public String filename() {
+        return filename;
+    }
+
+    /** @return samples handed to the writer so far. */
+    public long recorded() {
+        return recorded;
+    }
+
+    /** @return samples skipped because the writer was behind. */
+    public long dropped() {
+        return dropped;
+    }
+
+    /** @return bytes written to the file so far. */
+    public long bytesWritten() {
+        return bytes;
+    }
+
+    /**
+     * Takes a free sample sized for n bodies, or returns null (and counts a
+     * drop) if the writer still holds both. Never blocks. Fill the arrays
+     * and count, then pass the sample to commit(). Simulation thread only.
+     *
+     * @param tick tick being recorded
+     * @param n number of bodies
+     * @return the sample to fill, or null to skip this tick
+     */
+    Sample begin(long tick, int n) {
+        Sample s = closed ? null : free.poll();
+        if (s == null) {
+            dropped++;
+            return null;
+        }
+        s.ensureCapacity(n);
+        s.tick = tick;
+        s.count = n;
+        return s;
+    }
+
+    /**
+     * Hands a sample filled after begin() to the writer thread.
+     *
+     * @param s the filled sample
+     */
+    void commit(Sample s) {
+        recorded++;
+        full.add(s);
+    }
+
+    /**
+     * Writes out everything committed so far, closes the file and stops
+     * the writer. Later begin() calls return null. Safe to call more than
+     * once and from any thread.
+     */
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        full.add(POISON);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Writer thread: encodes samples until POISON arrives
+    private void writeLoop() {
+        try {
+            while (true) {
+                Sample s = full.take();
+                if (s == POISON) {
+                    break;
+                }
+                encode(s);
+                free.add(s);
+                if (rawLen >= BLOCK_BYTES) {
+                    flushBlock();
+                }
+            }
+            flushBlock();
+        } catch (IOException e) {
+            System.err.println("Warning: trajectory recording to " + filename + " stopped: " + e.getMessage());
+        } catch (InterruptedException e) {
+            // daemon thread interrupted at exit; what was written stays readable
+        } finally {
+            try {
+                ch.close();
+            } catch (IOException e) {
+                System.err.println("Warning: cannot close " + filename + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // Appends one record to the current block
+    private void encode(Sample s) {
+        int n = s.count;
+        sortById(s);
+
+        if (blockRecords == 0) {
+            blockTick = s.tick;
+            prevTick = s.tick;
+            prevCount = 0;
+        }
+        long dt = s.tick - prevTick;
+        putVarint(dt);
+        putVarint(n);
+
+        // ids ascend, so each is a small positive step from the last
+        long last = -1;
+        for (int k = 0; k < n; k++) {
+            putVarint(id[k] - last);
+            last = id[k];
+        }
+
+        // merge-join with the previous record to find each body's old state
+        int j = 0;
+        for (int k = 0; k < n; k++) {
+            while (j < prevCount && pid[j] < id[k]) {
+                j++;
+            }
+            match[k] = (j < prevCount && pid[j] == id[k]) ? j : -1;
+        }
+
+        int shift = VEL_BITS - POS_BITS;
+        for (int k = 0; k < n; k++) {
+            int p = match[k];
+            putSigned(qx[k] - (p < 0 ? 0 : pqx[p] + ((pqvx[p] * dt) >> shift)));
+        }
+        for (int k = 0; k < n; k++) {
+            int p = match[k];
+            putSigned(qy[k] - (p < 0 ? 0 : pqy[p] + ((pqvy[p] * dt) >> shift)));
+        }
+        for (int k = 0; k < n; k++) {
+            int p = match[k];
+            putSigned(qvx[k] - (p < 0 ? 0 : pqvx[p]));
+        }
+        for (int k = 0; k < n; k++) {
+            int p = match[k];
+            putSigned(qvy[k] - (p < 0 ? 0 : pqvy[p]));
+        }
+        for (int k = 0; k < n; k++) {
+            int p = match[k];
+            putSigned(qr[k] - (p < 0 ? 0 : pqr[p]));
+        }
+        for (int k = 0; k < n; k++) {
+            int p = match[k];
+            putSigned(col[k] - (p < 0 ? 0 : pcol[p]));
+        }
+
+        // this record becomes the previous one
+        long[] t;
+        t = pid; pid = id; id = t;
+        t = pqx; pqx = qx; qx = t;
+        t = pqy; pqy = qy; qy = t;
+        t = pqvx; pqvx = qvx; qvx = t;
+        t = pqvy; pqvy = qvy; qvy = t;
+        t = pqr; pqr = qr; qr = t;
+        byte[] c = pcol; pcol = col; col = c;
+        prevCount = n;
+        prevTick = s.tick;
+        blockRecords++;
+    }
+
+    // Copies the sample into id/qx/qy/qvx/qvy ordered by id, quantized
+    private void sortById(Sample s) {
+        int n = s.count;
+        if (id.length < n) {
+            int cap = Math.max(n, id.length * 2);
+            id = new long[cap];
+            qx = new long[cap];
+            qy = new long[cap];
+            qvx = new long[cap];
+            qvy = new long[cap];
+            qr = new long[cap];
+            col = new byte[cap];
+            match = new int[cap];
+        }
+        if (keys.length < n) {
+            keys = new long[Math.max(n, keys.length * 2)];
+        }
+
+        // sort (id, index) pairs packed into one long when they fit
+        boolean sorted = true;
+        boolean packable = n < (1 << 24);
+        for (int i = 0; i < n; i++) {
+            long bid = s.id[i];
+            sorted &= i == 0 || bid > s.id[i - 1];
+            packable &= bid >= 0 && bid < (1L << 39);
+            keys[i] = (bid << 24) | i;
+        }
+        if (!sorted) {
+            if (packable) {
+                Arrays.sort(keys, 0, n);
+                for (int k = 0; k < n; k++) {
+                    keys[k] &= (1 << 24) - 1;
+                }
+            } else {
+                Integer[] order = new Integer[n];
+                for (int i = 0; i < n; i++) {
+                    order[i] = i;
+                }
+                Arrays.sort(order, (a, b) -> Long.compare(s.id[a], s.id[b]));
+                for (int k = 0; k < n; k++) {
+                    keys[k] = order[k];
+                }
+            }
+        }
+
+        double posScale = 1 << POS_BITS;
+        double velScale = 1 << VEL_BITS;
+        for (int k = 0; k < n; k++) {
+            int i = sorted ? k : (int) keys[k];
+            id[k] = s.id[i];
+            qx[k] = Math.round(s.x[i] * posScale);
+            qy[k] = Math.round(s.y[i] * posScale);
+            qvx[k] = Math.round(s.vx[i] * velScale);
+            qvy[k] = Math.round(s.vy[i] * velScale);
+            qr[k] = Math.round(s.r[i] * posScale);
+            col[k] = s.color[i];
+        }
+    }
+
+    // Deflates the current block and writes it with its header
+    private void flushBlock() throws IOException {
+        if (blockRecords == 0) {
+            return;
+        }
+        deflater.reset();
+        deflater.setInput(raw, 0, rawLen);
+        deflater.finish();
+        int compLen = 0;
+        while (!deflater.finished()) {
+            if (compLen == comp.length) {
+                comp = Arrays.copyOf(comp, comp.length * 2);
+            }
+            compLen += deflater.deflate(comp, compLen, comp.length - compLen);
+        }
+
+        blockHeader.clear();
+        blockHeader.putInt(rawLen).putInt(compLen).putLong(blockTick).putInt(blockRecords);
+        blockHeader.flip();
+        ByteBuffer[] out = { blockHeader, ByteBuffer.wrap(comp, 0, compLen) };
+        while (out[1].hasRemaining()) {
+            ch.write(out);
+        }
+        bytes += BLOCK_HEADER + compLen;
+
+        rawLen = 0;
+        blockRecords = 0;
+        if (raw.length > 4 * (BLOCK_BYTES + 1024)) {
+            raw = new byte[BLOCK_BYTES + 1024];   // one huge record grew it; let that go
+        }
+    }
+
+    // Unsigned LEB128 varint
+    private void putVarint(long v) {
+        if (raw.length - rawLen < 10) {
+            raw = Arrays.copyOf(raw, raw.length * 2);
+        }
+        while ((v & ~0x7FL) != 0) {
+            raw[rawLen++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        raw[rawLen++] = (byte) v;
+    }
+
+    // Zigzag varint, so small negative values stay short too
+    private void putSigned(long v) {
+        putVarint((v << 1) ^ (v >> 63));
+    }
+}